@@ -2,6 +2,7 @@ plugins {
 	java
 	id("org.springframework.boot") version "3.5.5"
 	id("io.spring.dependency-management") version "1.1.7"
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.virtualwardrobe"
@@ -10,7 +11,7 @@ description = "Semester 3 Virtual Wardrobe project for Spring Boot"
 
 java {
 	toolchain {
-		languageVersion = JavaLanguageVersion.of(17)
+		languageVersion = JavaLanguageVersion.of(21)
 	}
 }
 
@@ -25,6 +26,7 @@ repositories {
 }
 
 dependencies {
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-security")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
@@ -35,17 +37,47 @@ dependencies {
 	implementation("io.jsonwebtoken:jjwt-api:0.11.5")
 
 	implementation("com.microsoft.onnxruntime:onnxruntime:1.20.0")
+	implementation("org.roaringbitmap:RoaringBitmap:1.3.0")
 
 	annotationProcessor("org.projectlombok:lombok:1.18.32")
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
 	runtimeOnly("org.postgresql:postgresql")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("org.springframework.security:spring-security-test")
+	testRuntimeOnly("com.h2database:h2")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 	runtimeOnly("io.jsonwebtoken:jjwt-impl:0.11.5")
 	runtimeOnly("io.jsonwebtoken:jjwt-jackson:0.11.5")
 }
 
+// The flat vector index uses the incubating Vector API; without the module it falls back to scalar loops.
+// Packaged jars get the flag from run.sh.
+val vectorModule = "--add-modules=jdk.incubator.vector"
+
+tasks.withType<JavaCompile> {
+	// javac warns "using incubating module(s)" on every compile because of this; that is expected
+	options.compilerArgs.add(vectorModule)
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
+	jvmArgs(vectorModule)
+}
+
+tasks.named<org.springframework.boot.gradle.tasks.run.BootRun>("bootRun") {
+	jvmArgs(vectorModule)
+}
+
+jmh {
+	jmhVersion = "1.37"
+	fork = 2
+	warmupIterations = 3
+	iterations = 5
+	timeUnit = "us"
+	benchmarkMode = listOf("avgt", "thrpt")
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("reports/jmh/results.json")
+	jvmArgsAppend = listOf(vectorModule)
 }
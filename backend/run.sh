@@ -0,0 +1,7 @@
+#!/bin/sh
+# Runs the packaged app (gradle bootJar) with the JVM flags that bootRun and the tests get from
+# build.gradle.kts. Extra JVM options go in JAVA_OPTS; arguments are passed on to the app.
+set -e
+jar=$(ls "$(dirname "$0")"/build/libs/*.jar | grep -v -e '-plain\.jar$' -e '-jmh\.jar$' | head -n 1)
+# The flat vector index uses the incubating Vector API; without the module it falls back to scalar loops
+exec java --add-modules=jdk.incubator.vector $JAVA_OPTS -jar "$jar" "$@"
@@ -0,0 +1,72 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.User;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Wiring helpers so benchmarks can exercise the real services without a Spring context or a database.
+ */
+final class BenchmarkSupport {
+
+    static final List<String> CATEGORIES = List.of("outerwear", "tops", "bottoms", "shoes", "accessories");
+    static final List<String> COLOURS = List.of("black", "white", "red", "green", "blue", "purple", "yellow", "orange", "pink");
+    static final List<String> SEASONS = List.of("Summer", "Winter", "summer");
+
+    private BenchmarkSupport() {
+    }
+
+    /** Sets a field that Spring would normally fill from {@code @Value}. */
+    static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + field + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * A repository proxy that answers the given query methods from canned results and fails on
+     * anything else, so an unexpected database call shows up as an error rather than a skewed number.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (results.containsKey(method.getName())) {
+                return results.get(method.getName());
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return method.invoke(results, args);
+            }
+            throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        });
+    }
+
+    /** A deterministic synthetic wardrobe; the same size always yields the same items. */
+    static List<ClothingItem> wardrobe(User user, int size) {
+        Random random = new Random(size);
+        List<ClothingItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(ClothingItem.builder()
+                    .id(new UUID(size, i))
+                    .name("item-" + i)
+                    .category(CATEGORIES.get(random.nextInt(CATEGORIES.size())))
+                    .colour(COLOURS.get(random.nextInt(COLOURS.size())))
+                    .season(SEASONS.get(random.nextInt(SEASONS.size())))
+                    .brand("brand-" + random.nextInt(20))
+                    .imagePath("https://example.com/" + i + ".jpg")
+                    .user(user)
+                    .build());
+        }
+        return items;
+    }
+}
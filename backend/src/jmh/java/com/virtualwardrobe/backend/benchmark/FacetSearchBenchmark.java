@@ -0,0 +1,67 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.WardrobeFacets;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Facet searches behind {@code GET /api/clothing/user/{userId}/facets} on synthetic wardrobes:
+ * no filter (counts over every item), one facet, and a narrow query across three facets. Every
+ * search computes all four facets' counts, so these are the full per-request costs once the
+ * snapshot's bitmaps exist. {@code rebuild} builds a snapshot and its bitmaps from scratch, an upper
+ * bound on what the first search after a save pays on top.
+ */
+@State(Scope.Benchmark)
+public class FacetSearchBenchmark {
+
+    private static final Map<String, List<String>> ONE_FACET = Map.of("category", List.of("tops", "bottoms"));
+    private static final Map<String, List<String>> NARROW = Map.of(
+            "category", List.of("tops"),
+            "colour", List.of("black", "white"),
+            "season", List.of("summer"));
+
+    @Param({"1000", "10000"})
+    int wardrobeSize;
+
+    private WardrobeIndex index;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = User.builder().id(new UUID(0, wardrobeSize)).username("bench").email("bench@example.com").build();
+        userId = user.getId();
+        ClothingItemRepository repository = BenchmarkSupport.repository(ClothingItemRepository.class,
+                Map.of("findAllByUserId", BenchmarkSupport.wardrobe(user, wardrobeSize)));
+        index = new WardrobeIndex(repository, new ItemFeatureEncoder());
+        BenchmarkSupport.inject(index, "maxUsers", 16);
+        BenchmarkSupport.inject(index, "maxBytes", Long.MAX_VALUE);
+        index.get(userId).facets();
+    }
+
+    @Benchmark
+    public WardrobeFacets.Result unfiltered() {
+        return index.get(userId).facets().search(Map.of());
+    }
+
+    @Benchmark
+    public WardrobeFacets.Result oneFacet() {
+        return index.get(userId).facets().search(ONE_FACET);
+    }
+
+    @Benchmark
+    public WardrobeFacets.Result narrow() {
+        return index.get(userId).facets().search(NARROW);
+    }
+
+    @Benchmark
+    public WardrobeFacets rebuild() {
+        return index.peek(new UUID(1, wardrobeSize)).facets();
+    }
+}
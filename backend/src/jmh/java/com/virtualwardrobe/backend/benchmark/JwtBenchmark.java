@@ -0,0 +1,32 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.config.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Token issue and verification cost of {@link JwtUtil} with a 256-bit HMAC key.
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "A34Hi7P3TFTD6183Pn7thcrbm/b3O0ygfjAV/0fK19I="; // benchmark-only key
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 86_400_000L);
+        token = jwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+}
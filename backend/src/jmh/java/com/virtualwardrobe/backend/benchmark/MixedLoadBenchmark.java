@@ -0,0 +1,165 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.config.BulkheadDataSourceConfig;
+import com.virtualwardrobe.backend.config.BulkheadFullException;
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput under a mix of slow and fast requests that share the database, comparing
+ * Tomcat's default platform pool of 200 threads with a virtual thread per request.
+ * <p>
+ * Every request borrows a connection from a Hikari pool sized like the app's, over an in-memory H2
+ * database. A fast request reads one user's items through the {@code user_id} index, as an uncached
+ * listing does. A slow one holds its connection for {@link #SLOW_QUERY_MILLIS} in a server-side
+ * sleep, like a long report query or a lock wait. With {@code bulkhead=true} the pool is wrapped by
+ * {@link BulkheadDataSourceConfig}'s data source with the app's default permits and acquire timeout,
+ * exactly as in production. Requests it turns away (503s in the app) still count towards the score
+ * and are also reported, per iteration, as the {@code rejected} secondary result.
+ * <p>
+ * Each invocation pushes {@link #REQUESTS} requests through the executor and waits for all of
+ * them, so the score is requests per second.
+ * <p>
+ * Expected: with no slow share, virtual threads beat the platform pool. As the slow share grows,
+ * the connections become the bottleneck in both modes; without the bulkhead every request queues
+ * inside the pool for as long as it takes, with it the requests the connections cannot serve within
+ * the acquire timeout fail fast instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class MixedLoadBenchmark {
+
+    static final int REQUESTS = 2_000;
+    static final int PLATFORM_THREADS = 200;
+    static final int POOL_SIZE = 10;
+    static final int USERS = 100;
+    static final int ITEMS_PER_USER = 50;
+    static final long SLOW_QUERY_MILLIS = 50;
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"0", "10", "50"})
+    int slowPercent;
+
+    @Param({"false", "true"})
+    boolean bulkhead;
+
+    private ExecutorService executor;
+    private HikariDataSource pool;
+    private JdbcTemplate jdbcTemplate;
+    private UUID[] users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:mixed-load;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        pool = new HikariDataSource(config);
+
+        DataSource dataSource = pool;
+        if (bulkhead) {
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("bulkheads", new Bulkheads(POOL_SIZE, 8, 16, 2_000));
+            dataSource = (DataSource) BulkheadDataSourceConfig.bulkheadDataSourcePostProcessor(
+                    beans.getBeanProvider(Bulkheads.class)).postProcessAfterInitialization(pool, "dataSource");
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        jdbcTemplate.execute("CREATE ALIAS PAUSE FOR '" + MixedLoadBenchmark.class.getName() + ".pause'");
+        jdbcTemplate.execute("""
+                CREATE TABLE clothing_items (
+                    id UUID PRIMARY KEY, user_id UUID NOT NULL, name VARCHAR(255), category VARCHAR(64),
+                    colour VARCHAR(64), season VARCHAR(64), image_path VARCHAR(255))
+                """);
+        jdbcTemplate.execute("CREATE INDEX idx_clothing_items_user_id ON clothing_items (user_id, id)");
+        users = new UUID[USERS];
+        List<Object[]> rows = new ArrayList<>(USERS * ITEMS_PER_USER);
+        for (int u = 0; u < USERS; u++) {
+            users[u] = new UUID(1, u);
+            for (int i = 0; i < ITEMS_PER_USER; i++) {
+                rows.add(new Object[]{new UUID(u, i), users[u], "item-" + i,
+                        BenchmarkSupport.CATEGORIES.get(i % BenchmarkSupport.CATEGORIES.size()),
+                        BenchmarkSupport.COLOURS.get(i % BenchmarkSupport.COLOURS.size()),
+                        BenchmarkSupport.SEASONS.get(i % BenchmarkSupport.SEASONS.size()),
+                        "https://example.com/" + i + ".jpg"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO clothing_items VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+
+    /** Requests turned away by the database bulkhead during the iteration. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long rejected;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void mixedTraffic(Outcomes outcomes, Blackhole blackhole) throws Exception {
+        List<Future<Object>> responses = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            boolean slow = i % 100 < slowPercent;
+            UUID user = users[i % USERS];
+            responses.add(executor.submit(() -> slow ? slowRequest() : fastRequest(user)));
+        }
+        for (Future<Object> response : responses) {
+            try {
+                blackhole.consume(response.get());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof BulkheadFullException)) {
+                    throw e;
+                }
+                outcomes.rejected++;
+            }
+        }
+    }
+
+    private Object slowRequest() {
+        return jdbcTemplate.queryForObject("SELECT PAUSE(?)", Long.class, SLOW_QUERY_MILLIS);
+    }
+
+    private Object fastRequest(UUID user) {
+        return jdbcTemplate.queryForList(
+                "SELECT id, name, category, colour, season, image_path FROM clothing_items WHERE user_id = ? ORDER BY id",
+                user);
+    }
+
+    /** Server-side sleep for the slow query, registered with H2 as {@code PAUSE}. */
+    public static long pause(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return millis;
+    }
+}
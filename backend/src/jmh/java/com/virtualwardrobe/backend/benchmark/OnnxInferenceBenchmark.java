@@ -0,0 +1,57 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import com.virtualwardrobe.backend.service.ai.OnnxService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+
+/**
+ * Raw model throughput per batch size through {@link OnnxService#runBatch(float[], int, int, float[])}.
+ * <p>
+ * Point {@code -Donnx.model.path=...} at a model file to benchmark it; without it the bundled
+ * classpath model is used. Run with the {@code gc} profiler to check that the hot path does not
+ * allocate per call.
+ */
+@State(Scope.Benchmark)
+public class OnnxInferenceBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32", "64"})
+    int batchSize;
+
+    private OnnxService onnxService;
+    private float[] input;
+    private float[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        onnxService = new OnnxService(new SimpleMeterRegistry());
+        BenchmarkSupport.inject(onnxService, "modelPath", System.getProperty("onnx.model.path", ""));
+        BenchmarkSupport.inject(onnxService, "warmupRows", 8);
+        BenchmarkSupport.inject(onnxService, "maxRows", 64);
+        BenchmarkSupport.inject(onnxService, "bufferPoolSize", 1);
+        onnxService.init();
+        if (!onnxService.isAvailable()) {
+            throw new IllegalStateException("ONNX model failed to load; set -Donnx.model.path");
+        }
+
+        Random random = new Random(42);
+        input = new float[batchSize * ItemFeatureEncoder.FEATURES];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = random.nextFloat();
+        }
+        output = new float[batchSize * onnxService.outputWidth()];
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        onnxService.cleanup();
+    }
+
+    @Benchmark
+    public float[] runBatch() throws Exception {
+        onnxService.runBatch(input, batchSize, ItemFeatureEncoder.FEATURES, output);
+        return output;
+    }
+}
@@ -0,0 +1,63 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.dto.OutfitResponse;
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.Outfit;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.repository.OutfitRepository;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import com.virtualwardrobe.backend.service.OutfitService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Entity to DTO mapping cost of {@link OutfitService#getUserOutfits(UUID)} with five items per outfit.
+ */
+@State(Scope.Benchmark)
+public class OutfitMappingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int outfitCount;
+
+    private OutfitService outfitService;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = User.builder().id(new UUID(1, outfitCount)).username("bench").email("bench@example.com").build();
+        userId = user.getId();
+        List<ClothingItem> items = BenchmarkSupport.wardrobe(user, 50);
+
+        List<Outfit> outfits = new ArrayList<>(outfitCount);
+        for (int i = 0; i < outfitCount; i++) {
+            List<ClothingItem> outfitItems = new ArrayList<>(5);
+            for (int j = 0; j < 5; j++) {
+                outfitItems.add(items.get((i * 5 + j) % items.size()));
+            }
+            outfits.add(Outfit.builder()
+                    .id(new UUID(2, i))
+                    .name("outfit-" + i)
+                    .createdAt(Instant.ofEpochSecond(1_700_000_000L + i))
+                    .user(user)
+                    .items(outfitItems)
+                    .build());
+        }
+
+        outfitService = new OutfitService(
+                BenchmarkSupport.repository(OutfitRepository.class, Map.of("findByUserId", outfits)),
+                BenchmarkSupport.repository(UserRepository.class, Map.of()),
+                BenchmarkSupport.repository(ClothingItemRepository.class, Map.of()),
+                null); // wardrobe versions are only bumped on writes
+    }
+
+    @Benchmark
+    public List<OutfitResponse> getUserOutfits() {
+        return outfitService.getUserOutfits(userId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.ai.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The uncached path of {@link OutfitSuggestionService#suggestOutfit(UUID)} against synthetic
+ * wardrobes, with the wardrobe already indexed so the numbers cover candidate search and scoring
+ * only. Repeat requests are answered by {@link SuggestionCache} and never reach this code.
+ */
+@State(Scope.Benchmark)
+public class OutfitSuggestionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int wardrobeSize;
+
+    private OnnxService onnxService;
+    private InferenceBatcher inferenceBatcher;
+    private OutfitSearchEngine engine;
+    private WardrobeIndex index;
+    private UUID userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = User.builder().id(new UUID(0, wardrobeSize)).username("bench").email("bench@example.com").build();
+        userId = user.getId();
+        List<ClothingItem> items = BenchmarkSupport.wardrobe(user, wardrobeSize);
+
+        onnxService = new OnnxService(new SimpleMeterRegistry());
+        BenchmarkSupport.inject(onnxService, "modelPath", System.getProperty("onnx.model.path", ""));
+        BenchmarkSupport.inject(onnxService, "warmupRows", 8);
+        BenchmarkSupport.inject(onnxService, "maxRows", 64);
+        BenchmarkSupport.inject(onnxService, "bufferPoolSize", 2);
+        onnxService.init();
+
+        inferenceBatcher = new InferenceBatcher(onnxService, new Bulkheads(10, 8, 1024, 5000));
+        BenchmarkSupport.inject(inferenceBatcher, "enabled", true);
+        BenchmarkSupport.inject(inferenceBatcher, "maxBatchSize", 64);
+        BenchmarkSupport.inject(inferenceBatcher, "maxWaitMicros", 0L);
+        BenchmarkSupport.inject(inferenceBatcher, "queueDepth", 1024);
+        BenchmarkSupport.inject(inferenceBatcher, "timeoutMs", 5000L);
+        inferenceBatcher.start();
+
+        engine = new OutfitSearchEngine(inferenceBatcher);
+        BenchmarkSupport.inject(engine, "defaultTopK", 5);
+        BenchmarkSupport.inject(engine, "beamWidth", 64);
+        BenchmarkSupport.inject(engine, "candidateBudget", 20000);
+        BenchmarkSupport.inject(engine, "timeBudgetMs", 50L);
+
+        ClothingItemRepository repository = BenchmarkSupport.repository(ClothingItemRepository.class,
+                Map.of("findAllByUserId", items));
+        index = new WardrobeIndex(repository, new ItemFeatureEncoder());
+        BenchmarkSupport.inject(index, "maxUsers", 16);
+        BenchmarkSupport.inject(index, "maxBytes", Long.MAX_VALUE);
+        index.get(userId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inferenceBatcher.stop();
+        onnxService.cleanup();
+    }
+
+    @Benchmark
+    public List<OutfitSearchEngine.ScoredOutfit> suggestOutfit() throws Exception {
+        return engine.search(index.get(userId), 1);
+    }
+}
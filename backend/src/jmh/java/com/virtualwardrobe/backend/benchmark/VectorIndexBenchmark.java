@@ -0,0 +1,80 @@
+package com.virtualwardrobe.backend.benchmark;
+
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.service.ai.ComplementService;
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import com.virtualwardrobe.backend.service.ai.vector.FlatVectorIndex;
+import com.virtualwardrobe.backend.service.ai.vector.HnswVectorIndex;
+import com.virtualwardrobe.backend.service.ai.vector.VectorIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Top-10 lookups behind {@link ComplementService} on synthetic wardrobes: the SIMD scan, the same
+ * scan without the Vector API, and the HNSW graph. The graph's recall against the exact scan is
+ * asserted by {@code VectorIndexTest}, since a faster but wrong answer is no improvement.
+ */
+@State(Scope.Benchmark)
+public class VectorIndexBenchmark {
+
+    private static final int K = 10;
+
+    @Param({"1000", "10000", "100000"})
+    int wardrobeSize;
+
+    private FlatVectorIndex flatSimd;
+    private FlatVectorIndex flatScalar;
+    private HnswVectorIndex hnsw;
+    private float[][] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        User user = User.builder().id(new UUID(0, wardrobeSize)).username("bench").email("bench@example.com").build();
+        int dimension = ItemFeatureEncoder.FEATURES;
+        float[] rows = new ItemFeatureEncoder().encodeAll(BenchmarkSupport.wardrobe(user, wardrobeSize)).matrix().clone();
+        Random random = new Random(42);
+        for (int row = 0; row < wardrobeSize; row++) {
+            // Jitter so that equal items do not make every neighbour a tie
+            for (int d = 0; d < dimension; d++) {
+                rows[row * dimension + d] += (float) (random.nextGaussian() * 0.05);
+            }
+            VectorIndex.normalize(rows, row * dimension, dimension);
+        }
+
+        flatSimd = FlatVectorIndex.of(rows, dimension);
+        flatScalar = FlatVectorIndex.scalar(rows, dimension);
+        hnsw = HnswVectorIndex.build(rows, dimension, 16, 100, 64, 42);
+
+        queries = new float[256][];
+        for (int i = 0; i < queries.length; i++) {
+            float[] query = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                query[d] = (float) random.nextGaussian();
+            }
+            queries[i] = VectorIndex.normalize(query, 0, dimension);
+        }
+    }
+
+    private float[] nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    @Benchmark
+    public List<VectorIndex.Neighbor> flatSimd() {
+        return flatSimd.search(nextQuery(), K, row -> true);
+    }
+
+    @Benchmark
+    public List<VectorIndex.Neighbor> flatScalar() {
+        return flatScalar.search(nextQuery(), K, row -> true);
+    }
+
+    @Benchmark
+    public List<VectorIndex.Neighbor> hnsw() {
+        return hnsw.search(nextQuery(), K, row -> true);
+    }
+}
@@ -0,0 +1,72 @@
+package com.virtualwardrobe.backend.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many threads may be inside one kind of blocking call at a time. Callers that cannot get
+ * a permit within the acquire timeout fail with {@link BulkheadFullException} instead of waiting,
+ * so one slow dependency cannot absorb every request thread (or, with virtual threads, pile up
+ * unbounded work in front of it).
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int permits;
+    private final long acquireTimeoutMs;
+    private final Semaphore semaphore;
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int permits, long acquireTimeoutMs) {
+        this.name = name;
+        this.permits = permits;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.semaphore = new Semaphore(permits);
+    }
+
+    public <T> T call(Callable<T> task) throws Exception {
+        acquire();
+        try {
+            return task.call();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /** Takes a permit; the caller must {@link #release()} it exactly once. */
+    public void acquire() {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    public int inUse() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,97 @@
+package com.virtualwardrobe.backend.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Puts the database bulkhead in front of the connection pool: a permit is taken when a connection
+ * is borrowed and returned when it is closed. With virtual threads this keeps thousands of waiting
+ * requests from queueing inside the pool until its connection timeout. An object obtained through
+ * {@code unwrap} for a vendor interface must not be closed itself; close the connection it came from.
+ */
+@Configuration
+public class BulkheadDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor bulkheadDataSourcePostProcessor(ObjectProvider<Bulkheads> bulkheads) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, bulkheads);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static class BulkheadDataSource extends DelegatingDataSource {
+        private final ObjectProvider<Bulkheads> bulkheads;
+
+        BulkheadDataSource(DataSource target, ObjectProvider<Bulkheads> bulkheads) {
+            super(target);
+            this.bulkheads = bulkheads;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Bulkhead bulkhead = bulkheads.getObject().database();
+            bulkhead.acquire();
+            try {
+                return guard(super.getConnection(), bulkhead);
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Bulkhead bulkhead = bulkheads.getObject().database();
+            bulkhead.acquire();
+            try {
+                return guard(super.getConnection(username, password), bulkhead);
+            } catch (SQLException | RuntimeException e) {
+                bulkhead.release();
+                throw e;
+            }
+        }
+
+        private static Connection guard(Connection connection, Bulkhead bulkhead) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                                && released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                bulkhead.release();
+                            }
+                            return null;
+                        }
+                        // Closing the pooled connection directly would skip the release, so callers that only
+                        // need the Connection API get this proxy back; vendor interfaces come from the delegate
+                        if ("unwrap".equals(method.getName()) && args[0] instanceof Class<?> type && type.isInstance(proxy)) {
+                            return proxy;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.virtualwardrobe.backend.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends RuntimeException {
+    public BulkheadFullException(String bulkhead) {
+        super("Too many concurrent " + bulkhead + " calls");
+    }
+}
@@ -0,0 +1,52 @@
+package com.virtualwardrobe.backend.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** The bulkheads guarding the three blocking dependencies: database, image store and model inference. */
+@Component
+public class Bulkheads implements MeterBinder {
+
+    private final Bulkhead database;
+    private final Bulkhead imageStore;
+    private final Bulkhead inference;
+
+    public Bulkheads(@Value("${bulkhead.db.permits:10}") int dbPermits,
+                     @Value("${bulkhead.image-store.permits:8}") int imageStorePermits,
+                     @Value("${bulkhead.inference.permits:16}") int inferencePermits,
+                     @Value("${bulkhead.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        this.database = new Bulkhead("db", dbPermits, acquireTimeoutMs);
+        this.imageStore = new Bulkhead("image-store", imageStorePermits, acquireTimeoutMs);
+        this.inference = new Bulkhead("inference", inferencePermits, acquireTimeoutMs);
+    }
+
+    public Bulkhead database() {
+        return database;
+    }
+
+    public Bulkhead imageStore() {
+        return imageStore;
+    }
+
+    public Bulkhead inference() {
+        return inference;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Bulkhead bulkhead : List.of(database, imageStore, inference)) {
+            Gauge.builder("wardrobe.bulkhead.in.use", bulkhead, Bulkhead::inUse)
+                    .tag("bulkhead", bulkhead.name())
+                    .register(registry);
+            FunctionCounter.builder("wardrobe.bulkhead.rejected", bulkhead, Bulkhead::rejected)
+                    .tag("bulkhead", bulkhead.name())
+                    .register(registry);
+        }
+    }
+}
@@ -2,27 +2,65 @@ package com.virtualwardrobe.backend.config;
 
 import com.virtualwardrobe.backend.model.User;
 import com.virtualwardrobe.backend.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads users by email, keeping each result for {@code security.user-cache.ttl-ms} so that
+ * authenticated requests do not hit the database every time. Call {@link #evict(String)} after
+ * changing a user's password or role.
+ */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${security.user-cache.ttl-ms:60000}") long ttlMs,
+                                    @Value("${security.user-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(email);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.details;
+        }
+
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + email));
 
-        return org.springframework.security.core.userdetails.User
+        UserDetails details = org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPassword())
                 .roles(user.getRole())
                 .build();
+
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        if (cache.size() < maxEntries) {
+            cache.put(email, new CachedUser(details, now + ttlMs));
+        }
+        return details;
+    }
+
+    public void evict(String email) {
+        cache.remove(email);
+    }
+
+    private record CachedUser(UserDetails details, long expiresAt) {
     }
 }
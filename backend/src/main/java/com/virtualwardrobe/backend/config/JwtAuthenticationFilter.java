@@ -0,0 +1,124 @@
+package com.virtualwardrobe.backend.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Authenticates {@code Authorization: Bearer <jwt>} requests without a session.
+ * <p>
+ * A verified token is remembered under its SHA-256 (never the token itself) until its
+ * {@code exp}, so repeat requests skip HMAC verification and claim parsing. The user is then
+ * resolved through {@link CustomUserDetailsService}'s TTL cache. In steady state an authenticated
+ * request costs one hash and two map lookups. Requests without a valid token pass through
+ * unauthenticated and are left to the authorization rules.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtUtil jwtUtil;
+    private final CustomUserDetailsService userDetailsService;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry,
+                                   int maxEntries) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.maxEntries = maxEntries;
+        this.cacheHits = meterRegistry.counter("wardrobe.auth.token.cache", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("wardrobe.auth.token.cache", "result", "miss");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String subject = verify(header.substring(BEARER.length()).trim());
+            if (subject != null) {
+                try {
+                    UserDetails user = userDetailsService.loadUserByUsername(subject);
+                    UsernamePasswordAuthenticationToken authentication =
+                            UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                } catch (UsernameNotFoundException e) {
+                    // Token for a deleted user: stay anonymous
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /** Returns the token's subject if it is valid and unexpired, using the cache when possible. */
+    private String verify(String token) {
+        long now = System.currentTimeMillis();
+        String key = hash(token);
+        VerifiedToken cached = verified.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                cacheHits.increment();
+                return cached.subject;
+            }
+            verified.remove(key, cached);
+        }
+
+        cacheMisses.increment();
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getExpiration() == null) {
+            return claims.getSubject(); // not cacheable without an expiry
+        }
+
+        if (verified.size() >= maxEntries) {
+            verified.values().removeIf(entry -> entry.expiresAt <= now);
+        }
+        if (verified.size() < maxEntries) {
+            verified.put(key, new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+        }
+        return claims.getSubject();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(String subject, long expiresAt) {
+    }
+}
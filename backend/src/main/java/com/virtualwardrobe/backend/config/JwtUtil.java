@@ -1,30 +1,52 @@
 package com.virtualwardrobe.backend.config;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+
+import java.security.Key;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
-    private final String jwtSecret = "CHANGE_THIS_SECRET_KEY";
-    private final long jwtExpirationMs = 86400000; // 1 day
+    private final Key signingKey;
+    private final long jwtExpirationMs;
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret:}") String jwtSecret,
+                   @Value("${jwt.expiration-ms:86400000}") long jwtExpirationMs) {
+        if (jwtSecret == null || jwtSecret.isBlank()) {
+            // No built-in fallback: a key committed to the repo would let anyone forge tokens
+            throw new IllegalStateException("jwt.secret is not set; provide a base64 HS256 key of at least 256 bits in JWT_SECRET");
+        }
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
     public String generateToken(String username) {
         return Jwts.builder()
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .signWith(signingKey)
                 .compact();
     }
 
+    /** Verifies signature and expiry and returns the claims; throws {@link JwtException} otherwise. */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String getUsernameFromToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
+            parser.parseClaimsJws(token);
             return true;
         } catch (JwtException e) {
             return false;
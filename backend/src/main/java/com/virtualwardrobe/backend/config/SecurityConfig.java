@@ -1,25 +1,40 @@
 package com.virtualwardrobe.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final CustomUserDetailsService customUserDetailsService;
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+
+    // On by default; turning it off leaves only the admin endpoints protected
+    @Value("${security.require-auth:true}") private boolean requireAuth;
+    @Value("${security.jwt.cache.max-entries:10000}") private int tokenCacheEntries;
+    @Value("${password.bcrypt.strength:10}") private int bcryptStrength;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -39,9 +54,26 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
-            .authorizeHttpRequests(auth -> auth
-                    .anyRequest().permitAll()
-            );
+            .cors(Customizer.withDefaults()) // WebConfig's corsFilter, ahead of authentication so preflights pass
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .exceptionHandling(ex -> ex.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, customUserDetailsService, meterRegistry, tokenCacheEntries),
+                    UsernamePasswordAuthenticationFilter.class)
+            .authorizeHttpRequests(auth -> {
+                // The request dispatch was already authorized. The JWT filter runs once per request and
+                // the context is not stored, so an async result (SSE, CompletableFuture, streamed body)
+                // or an /error render would otherwise be re-checked as anonymous and denied mid-response
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll();
+                // Admin operations load files and run jobs over every user; never open to other callers
+                auth.requestMatchers("/api/admin/**").hasRole("ADMIN");
+                if (requireAuth) {
+                    auth.requestMatchers("/error", "/api/auth/**", "/api/users/login", "/api/users/signup",
+                                    "/api/thumbnails/**", "/images/**", "/actuator/health").permitAll()
+                            .anyRequest().authenticated();
+                } else {
+                    auth.anyRequest().permitAll();
+                }
+            });
         return http.build();
     }
 }
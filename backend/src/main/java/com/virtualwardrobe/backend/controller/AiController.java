@@ -1,12 +1,22 @@
 package com.virtualwardrobe.backend.controller;
 
-import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.dto.ComplementResponse;
+import com.virtualwardrobe.backend.dto.OutfitSuggestionResponse;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import com.virtualwardrobe.backend.service.ai.ComplementService;
 import com.virtualwardrobe.backend.service.ai.OutfitSuggestionService;
+import com.virtualwardrobe.backend.service.ai.SuggestionStreamService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -14,10 +24,44 @@ import java.util.UUID;
 public class AiController {
 
     private final OutfitSuggestionService outfitSuggestionService;
+    private final SuggestionStreamService suggestionStreamService;
+    private final ComplementService complementService;
 
     @GetMapping("/suggest-outfit/{userId}")
-    public List<ClothingItem> suggestOutfit(@PathVariable UUID userId) {
-        return outfitSuggestionService.suggestOutfit(userId);
+    public List<WardrobeItem> suggestOutfit(@PathVariable UUID userId,
+                                            @RequestParam(required = false) String season) {
+        return outfitSuggestionService.suggestOutfit(userId, season);
+    }
+
+    @GetMapping("/suggest-outfits/{userId}")
+    public List<OutfitSuggestionResponse> suggestOutfits(@PathVariable UUID userId,
+                                                         @RequestParam(defaultValue = "5") int k,
+                                                         @RequestParam(required = false) String season) {
+        return outfitSuggestionService.suggestOutfits(userId, Math.min(k, 50), season).stream()
+                .map(OutfitSuggestionResponse::from)
+                .toList();
+    }
+
+    /** Progressive variant of {@link #suggestOutfits}: {@code outfit} events as the ranking improves, then {@code done}. */
+    @GetMapping(value = "/suggest-outfit/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSuggestions(@PathVariable UUID userId,
+                                        @RequestParam(defaultValue = "5") int k,
+                                        @RequestParam(required = false) String season) {
+        return suggestionStreamService.stream(userId, Math.min(k, 50), season);
     }
-}
 
+    /** Items from other categories that pair well with {@code itemId}, best first. */
+    @GetMapping("/complements/{itemId}")
+    public ResponseEntity<List<ComplementResponse>> complements(@PathVariable UUID itemId,
+                                                                @RequestParam(defaultValue = "10") int k) throws Exception {
+        return complementService.complements(itemId, Math.min(k, 50))
+                .map(complements -> ResponseEntity.ok(complements.stream().map(ComplementResponse::from).toList()))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // No body: an EventSource client accepts only text/event-stream, which a JSON error cannot satisfy
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> streamsBusy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
@@ -2,15 +2,29 @@ package com.virtualwardrobe.backend.controller;
 
 import com.virtualwardrobe.backend.dto.ClothingItemRequest;
 import com.virtualwardrobe.backend.dto.ClothingItemResponse;
+import com.virtualwardrobe.backend.dto.CursorPage;
+import com.virtualwardrobe.backend.dto.FacetSearchResponse;
+import com.virtualwardrobe.backend.dto.ImportReport;
 import com.virtualwardrobe.backend.model.ClothingItem;
 import com.virtualwardrobe.backend.model.User;
 import com.virtualwardrobe.backend.repository.UserRepository;
+import com.virtualwardrobe.backend.service.ClothingImportService;
 import com.virtualwardrobe.backend.service.ClothingItemService;
+import com.virtualwardrobe.backend.service.WardrobeVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -19,6 +33,8 @@ import java.util.UUID;
 public class ClothingItemController {
     private final ClothingItemService clothingItemService;
     private final UserRepository userRepository;
+    private final ClothingImportService clothingImportService;
+    private final WardrobeVersionService wardrobeVersionService;
 
     @PostMapping
     public ResponseEntity<?> addItem(@RequestBody ClothingItemRequest request) {
@@ -41,7 +57,12 @@ public class ClothingItemController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<ClothingItemResponse>> getUserItems(@PathVariable UUID userId) {
+    public ResponseEntity<List<ClothingItemResponse>> getUserItems(@PathVariable UUID userId, WebRequest webRequest) {
+        // Version is read before the data, so a racing write leaves the ETag older than the body, never newer
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<ClothingItemResponse> items = clothingItemService.findAllByUserId(userId)
                 .stream()
                 .map(item -> new ClothingItemResponse(
@@ -52,10 +73,69 @@ public class ClothingItemController {
                         item.getImagePath(),
                         item.getBrand(),
                         item.getSeason(),
-                        item.getUser().getId()
+                        userId
                 ))
                 .toList();
-        return ResponseEntity.ok(items);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(items);
+    }
+
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CursorPage<ClothingItemResponse>> getUserItemsPage(@PathVariable UUID userId,
+                                                                             @RequestParam(required = false) String cursor,
+                                                                             @RequestParam(required = false) Integer limit,
+                                                                             @RequestParam(required = false) String category,
+                                                                             @RequestParam(required = false) String season,
+                                                                             @RequestParam(required = false) String colour,
+                                                                             WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(clothingItemService.findPage(userId, cursor, limit, category, season, colour));
+    }
+
+    @GetMapping("/user/{userId}/facets")
+    public ResponseEntity<FacetSearchResponse> searchFacets(@PathVariable UUID userId,
+                                                            @RequestParam(required = false) List<String> category,
+                                                            @RequestParam(required = false) List<String> colour,
+                                                            @RequestParam(required = false) List<String> season,
+                                                            @RequestParam(required = false) List<String> brand,
+                                                            WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put("category", category);
+        selected.put("colour", colour);
+        selected.put("season", season);
+        selected.put("brand", brand);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(clothingItemService.searchFacets(userId, selected));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body,
+                                       @RequestParam(required = false) UUID userId) throws IOException {
+        return runImport(body, userId);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importCsvFile(@RequestParam("file") MultipartFile file,
+                                           @RequestParam(required = false) UUID userId) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return runImport(in, userId);
+        }
+    }
+
+    private ResponseEntity<?> runImport(InputStream csv, UUID userId) throws IOException {
+        try {
+            ImportReport report = clothingImportService.importCsv(csv, userId);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/{id}")
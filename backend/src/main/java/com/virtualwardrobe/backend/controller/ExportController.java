@@ -0,0 +1,27 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.service.WardrobeExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+    private final WardrobeExportService wardrobeExportService;
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<StreamingResponseBody> exportUser(@PathVariable UUID userId) {
+        StreamingResponseBody body = out -> wardrobeExportService.export(userId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"wardrobe-" + userId + ".ndjson\"")
+                .body(body);
+    }
+}
@@ -1,21 +1,32 @@
 package com.virtualwardrobe.backend.controller;
 
-import com.virtualwardrobe.backend.service.CloudinaryService;
+import com.virtualwardrobe.backend.service.ImageUploadService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/images")
 @RequiredArgsConstructor
 public class ImageController {
-    private final CloudinaryService cloudinaryService;
+    private final ImageUploadService imageUploadService;
 
     @PostMapping("/upload")
-    public ResponseEntity<Map<String, String>> uploadImage(@RequestParam("file") MultipartFile file) {
-        String url = cloudinaryService.upload(file); // uploads to Cloudinary
-        return ResponseEntity.ok(Map.of("url", url));
+    public CompletableFuture<ResponseEntity<Map<String, String>>> uploadImage(@RequestParam("file") MultipartFile file,
+                                                                             @RequestParam(required = false) String folder) throws IOException {
+        return imageUploadService.upload(file, folder)
+                .thenApply(url -> ResponseEntity.ok(Map.of("url", url)));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> uploadsBusy(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Too many uploads in progress"));
     }
 }
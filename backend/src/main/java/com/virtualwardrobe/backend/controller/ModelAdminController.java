@@ -0,0 +1,32 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.service.ai.OnnxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/admin/model")
+@RequiredArgsConstructor
+public class ModelAdminController {
+    private final OnnxService onnxService;
+
+    @GetMapping
+    public ResponseEntity<OnnxService.ModelInfo> getActiveModel() {
+        OnnxService.ModelInfo info = onnxService.activeModel();
+        return info == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(info);
+    }
+
+    /** {@code path} is resolved inside {@code onnx.model.dir}; anything else is a 400. Admin only, see SecurityConfig. */
+    @PostMapping("/reload")
+    public CompletableFuture<ResponseEntity<?>> reload(@RequestParam(required = false) String path,
+                                                       @RequestParam(required = false) String version) {
+        try {
+            return onnxService.reload(path, version).<ResponseEntity<?>>thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+    }
+}
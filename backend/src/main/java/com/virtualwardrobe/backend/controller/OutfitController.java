@@ -1,11 +1,15 @@
 package com.virtualwardrobe.backend.controller;
 
+import com.virtualwardrobe.backend.dto.CursorPage;
 import com.virtualwardrobe.backend.dto.OutfitRequest;
 import com.virtualwardrobe.backend.dto.OutfitResponse;
 import com.virtualwardrobe.backend.service.OutfitService;
+import com.virtualwardrobe.backend.service.WardrobeVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -15,6 +19,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OutfitController {
     private final OutfitService outfitService;
+    private final WardrobeVersionService wardrobeVersionService;
 
     @PostMapping
     public ResponseEntity<OutfitResponse> createOutfit(@RequestBody OutfitRequest request) {
@@ -23,9 +28,26 @@ public class OutfitController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OutfitResponse>> getUserOutfits(@PathVariable UUID userId) {
+    public ResponseEntity<List<OutfitResponse>> getUserOutfits(@PathVariable UUID userId, WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<OutfitResponse> outfits = outfitService.getUserOutfits(userId);
-        return ResponseEntity.ok(outfits);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(outfits);
+    }
+
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CursorPage<OutfitResponse>> getUserOutfitsPage(@PathVariable UUID userId,
+                                                                         @RequestParam(required = false) String cursor,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(outfitService.findPage(userId, cursor, limit));
     }
 
     @DeleteMapping("/{outfitId}")
@@ -1,11 +1,18 @@
 package com.virtualwardrobe.backend.controller;
 
+import com.virtualwardrobe.backend.dto.CursorPage;
+import com.virtualwardrobe.backend.dto.OutfitHistoryResponse;
 import com.virtualwardrobe.backend.model.OutfitHistory;
 import com.virtualwardrobe.backend.service.OutfitHistoryService;
+import com.virtualwardrobe.backend.service.WardrobeVersionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,6 +21,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class OutfitHistoryController {
     private final OutfitHistoryService outfitHistoryService;
+    private final WardrobeVersionService wardrobeVersionService;
 
     @PostMapping
     public ResponseEntity<OutfitHistory> addHistory(@RequestBody OutfitHistory history) {
@@ -21,7 +29,28 @@ public class OutfitHistoryController {
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OutfitHistory>> getUserHistory(@PathVariable UUID userId) {
-        return ResponseEntity.ok(outfitHistoryService.findByUserId(userId));
+    public ResponseEntity<List<OutfitHistoryResponse>> getUserHistory(@PathVariable UUID userId, WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(outfitHistoryService.findByUserId(userId));
+    }
+
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<CursorPage<OutfitHistoryResponse>> getUserHistoryPage(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest) {
+        String etag = wardrobeVersionService.etag(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .body(outfitHistoryService.findPage(userId, from, to, cursor, limit));
     }
 }
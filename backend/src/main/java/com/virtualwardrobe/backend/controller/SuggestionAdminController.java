@@ -0,0 +1,26 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.service.ai.SuggestionPrecomputeJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/suggestions")
+@RequiredArgsConstructor
+public class SuggestionAdminController {
+    private final SuggestionPrecomputeJob suggestionPrecomputeJob;
+
+    @GetMapping("/precompute")
+    public ResponseEntity<SuggestionPrecomputeJob.RunReport> latestRun() {
+        SuggestionPrecomputeJob.RunReport report = suggestionPrecomputeJob.latest();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    /** Starts (or resumes) today's run in the background; poll the GET for progress. */
+    @PostMapping("/precompute")
+    public ResponseEntity<Void> precompute() {
+        suggestionPrecomputeJob.trigger();
+        return ResponseEntity.accepted().build();
+    }
+}
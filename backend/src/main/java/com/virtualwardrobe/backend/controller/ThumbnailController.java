@@ -0,0 +1,90 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.dto.ClothingItemResponse;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/thumbnails")
+@RequiredArgsConstructor
+public class ThumbnailController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ClothingItemRepository clothingItemRepository;
+    private final ThumbnailService thumbnailService;
+
+    /**
+     * Serves the item's thumbnail straight from the disk cache: Tomcat's sendfile when the
+     * connector offers it, otherwise {@link FileChannel#transferTo}. Until the thumbnail exists the
+     * client is redirected to the full image while it is generated in the background. Images
+     * outside the allowed image stores get neither a thumbnail nor a redirect.
+     * <p>
+     * The response is cacheable forever only when {@code v} matches the current image, as in the
+     * URL from {@link ClothingItemResponse#getThumbnailUrl()}; otherwise it must be revalidated.
+     */
+    @GetMapping("/{itemId}")
+    public void getThumbnail(@PathVariable UUID itemId,
+                             @RequestParam(required = false) String v,
+                             HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        String imagePath = clothingItemRepository.findImagePathById(itemId).orElse(null);
+        if (imagePath == null || !thumbnailService.isAllowed(imagePath)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String cacheControl = ThumbnailService.version(imagePath).equals(v)
+                ? "public, max-age=31536000, immutable"
+                : "no-cache";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+
+        String key = thumbnailService.key(imagePath);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + key + "\"")) {
+            return;
+        }
+
+        Path file = thumbnailService.cached(key);
+        if (file == null) {
+            thumbnailService.request(imagePath);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            response.sendRedirect(imagePath);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+            response.setContentLengthLong(size);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, size);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.virtualwardrobe.backend.controller;
 
+import com.virtualwardrobe.backend.config.JwtUtil;
 import com.virtualwardrobe.backend.dto.UserResponse;
 import com.virtualwardrobe.backend.model.User;
 import com.virtualwardrobe.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,24 +19,31 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final JwtUtil jwtUtil;
 
     @PostMapping("/signup")
     public ResponseEntity<UserResponse> signup(@RequestBody User signup) {
-        User created = userService.signup(signup);
-        UserResponse resp = new UserResponse();
-        resp.setId(created.getId());
-        resp.setUsername(created.getUsername());
-        resp.setEmail(created.getEmail());
-        resp.setAvatarUrl(created.getAvatarUrl());
-        resp.setRole(created.getRole());
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.ok(toResponse(userService.signup(signup)));
     }
 
     @PostMapping("/login")
-    public User login(@RequestBody Map<String, String> body) {
+    public ResponseEntity<UserResponse> login(@RequestBody Map<String, String> body) {
         String email = body.get("email");
         String password = body.get("password");
         Optional<User> user = userService.login(email, password);
-        return user.orElseThrow(() -> new RuntimeException("Invalid credentials"));
+        return user.map(u -> ResponseEntity.ok(toResponse(u)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /** Profile plus a bearer token for the rest of the API; never the password hash. */
+    private UserResponse toResponse(User user) {
+        UserResponse resp = new UserResponse();
+        resp.setId(user.getId());
+        resp.setUsername(user.getUsername());
+        resp.setEmail(user.getEmail());
+        resp.setAvatarUrl(user.getAvatarUrl());
+        resp.setRole(user.getRole());
+        resp.setToken(jwtUtil.generateToken(user.getEmail()));
+        return resp;
     }
 }
@@ -0,0 +1,36 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.service.WearStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/wear-stats")
+@RequiredArgsConstructor
+public class WearStatsAdminController {
+    private final WearStatsService wearStatsService;
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<WearStatsService.RebuildReport> latestRebuild() {
+        WearStatsService.RebuildReport report = wearStatsService.latest();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
+
+    /** Rebuilds every user's rows in the background; poll the GET for the report. */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        return wearStatsService.startRebuild()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @PostMapping("/rebuild/user/{userId}")
+    public ResponseEntity<Map<String, Integer>> rebuildUser(@PathVariable UUID userId) {
+        return ResponseEntity.ok(Map.of("items", wearStatsService.rebuildForUser(userId)));
+    }
+}
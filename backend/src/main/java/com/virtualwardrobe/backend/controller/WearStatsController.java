@@ -0,0 +1,32 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.virtualwardrobe.backend.dto.ItemWearResponse;
+import com.virtualwardrobe.backend.service.WearStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/wear-stats")
+@RequiredArgsConstructor
+public class WearStatsController {
+    private final WearStatsService wearStatsService;
+
+    @GetMapping("/user/{userId}/least-worn")
+    public ResponseEntity<List<ItemWearResponse>> getLeastWorn(@PathVariable UUID userId,
+                                                               @RequestParam String category,
+                                                               @RequestParam(required = false) String season,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(wearStatsService.leastWorn(userId, category, season, limit));
+    }
+
+    @GetMapping("/user/{userId}/not-worn")
+    public ResponseEntity<List<ItemWearResponse>> getNotWorn(@PathVariable UUID userId,
+                                                             @RequestParam(defaultValue = "90") int days,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(wearStatsService.notWornFor(userId, days, limit));
+    }
+}
@@ -1,6 +1,8 @@
 package com.virtualwardrobe.backend.dto;
 
 import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.service.ThumbnailService;
+import com.virtualwardrobe.backend.service.WardrobeItem;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -18,6 +20,15 @@ public class ClothingItemResponse {
     private String season;
     private UUID userId;
 
+    /**
+     * Small cached rendition of {@link #imagePath} for grids and cards; relative to the API origin.
+     * Carries the image's version, so a new image gets a new URL instead of a stale cached one.
+     */
+    public String getThumbnailUrl() {
+        return id == null || imagePath == null ? null
+                : "/api/thumbnails/" + id + "?v=" + ThumbnailService.version(imagePath);
+    }
+
     public static ClothingItemResponse from(ClothingItem item) {
         return new ClothingItemResponse(
                 item.getId(),
@@ -30,5 +41,18 @@ public class ClothingItemResponse {
                 item.getUser() != null ? item.getUser().getId() : null
         );
     }
+
+    public static ClothingItemResponse from(WardrobeItem item) {
+        return new ClothingItemResponse(
+                item.getId(),
+                item.getName(),
+                item.getCategory(),
+                item.getColour(),
+                item.getImagePath(),
+                item.getBrand(),
+                item.getSeason(),
+                item.getUserId()
+        );
+    }
 }
 
@@ -0,0 +1,16 @@
+package com.virtualwardrobe.backend.dto;
+
+import com.virtualwardrobe.backend.service.ai.ComplementService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ComplementResponse {
+    private double score;
+    private ClothingItemResponse item;
+
+    public static ComplementResponse from(ComplementService.Complement complement) {
+        return new ComplementResponse(complement.score(), ClothingItemResponse.from(complement.item()));
+    }
+}
@@ -0,0 +1,13 @@
+package com.virtualwardrobe.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor; // null on the last page
+}
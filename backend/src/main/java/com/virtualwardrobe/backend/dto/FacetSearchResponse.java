@@ -0,0 +1,15 @@
+package com.virtualwardrobe.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class FacetSearchResponse {
+    private List<UUID> ids;
+    private Map<String, Map<String, Integer>> facets; // facet -> value -> matching items under the other filters
+}
@@ -0,0 +1,22 @@
+package com.virtualwardrobe.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportReport {
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private List<RowError> errors; // capped; failed holds the full count
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,20 @@
+package com.virtualwardrobe.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class ItemWearResponse {
+    private UUID itemId;
+    private String name;
+    private String category;
+    private String season;
+    private String imagePath;
+    private int wearCount;
+    private LocalDate firstWorn; // null if never worn
+    private LocalDate lastWorn;  // null if never worn
+}
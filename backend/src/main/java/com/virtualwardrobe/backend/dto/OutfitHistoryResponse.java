@@ -0,0 +1,16 @@
+package com.virtualwardrobe.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class OutfitHistoryResponse {
+    private UUID id;
+    private UUID outfitId;
+    private String outfitName;
+    private LocalDate wornOn;
+}
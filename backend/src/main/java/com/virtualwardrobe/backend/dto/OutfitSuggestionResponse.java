@@ -0,0 +1,23 @@
+package com.virtualwardrobe.backend.dto;
+
+import com.virtualwardrobe.backend.service.ai.OutfitSearchEngine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OutfitSuggestionResponse {
+    private double score;
+    private List<ClothingItemResponse> items;
+
+    public static OutfitSuggestionResponse from(OutfitSearchEngine.ScoredOutfit outfit) {
+        return new OutfitSuggestionResponse(
+                outfit.score(),
+                outfit.items().stream()
+                        .map(ClothingItemResponse::from)
+                        .toList()
+        );
+    }
+}
@@ -10,4 +10,5 @@ public class UserResponse {
     private String email;
     private String role;
     private String avatarUrl;
+    private String token; // bearer token for the API, issued on signup and login
 }
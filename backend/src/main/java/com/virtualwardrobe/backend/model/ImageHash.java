@@ -0,0 +1,34 @@
+package com.virtualwardrobe.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/** Maps the SHA-256 of an uploaded image to the URL it was stored under in a given image store. */
+@Entity
+@Table(name = "image_hashes")
+@IdClass(ImageHash.Key.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ImageHash {
+    @Id
+    private String sha256;
+
+    @Id
+    private String store;
+
+    @Column(nullable = false)
+    private String url;
+
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String sha256;
+        private String store;
+    }
+}
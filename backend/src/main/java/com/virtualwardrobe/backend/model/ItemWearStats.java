@@ -0,0 +1,36 @@
+package com.virtualwardrobe.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Denormalised wear counters for one clothing item, kept up to date as history is recorded.
+ * Owner, category and (lower-cased) season are copied from the item so that "least worn" style
+ * queries are served from this table's indexes alone.
+ */
+@Entity
+@Table(name = "item_wear_stats")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ItemWearStats {
+    @Id
+    @Column(name = "item_id")
+    private UUID itemId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    private String category;
+    private String season;
+
+    @Column(name = "wear_count", nullable = false)
+    private int wearCount;
+
+    @Column(name = "first_worn")
+    private LocalDate firstWorn;
+
+    @Column(name = "last_worn")
+    private LocalDate lastWorn;
+}
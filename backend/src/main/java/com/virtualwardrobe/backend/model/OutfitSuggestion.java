@@ -6,7 +6,7 @@ import java.time.Instant;
 import java.util.*;
 
 @Entity
-@Table(name = "outfit_suggestions")
+@Table(name = "outfits_suggestions")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class OutfitSuggestion {
     @Id @GeneratedValue
@@ -15,6 +15,13 @@ public class OutfitSuggestion {
     @ManyToOne @JoinColumn(name = "user_id")
     private User user;
 
+    @Column(name = "wardrobe_version", nullable = false)
+    private long wardrobeVersion;
+
+    /** Everything besides the wardrobe that shaped the result: model version, season, size. */
+    @Column(nullable = false)
+    private String context;
+
     @Builder.Default
     private Instant createdAt = Instant.now();
 }
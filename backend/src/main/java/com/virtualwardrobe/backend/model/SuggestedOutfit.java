@@ -11,11 +11,20 @@ public class SuggestedOutfit {
     @Id @GeneratedValue
     private UUID id;
 
-    @ManyToOne @JoinColumn(name = "suggestion_id")
+    @ManyToOne @JoinColumn(name = "ai_suggestion_id")
     private OutfitSuggestion suggestion;
 
     @ManyToOne @JoinColumn(name = "clothing_items_id")
     private ClothingItem clothingItem;
 
     private String type;
+
+    /** Rank of the outfit this item belongs to within the suggestion, best first. */
+    @Column(name = "outfit_rank", nullable = false)
+    private int outfitRank;
+
+    @Column(name = "item_position", nullable = false)
+    private int itemPosition;
+
+    private double score;
 }
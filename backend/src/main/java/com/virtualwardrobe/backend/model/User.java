@@ -1,5 +1,6 @@
 package com.virtualwardrobe.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.UUID;
@@ -24,4 +25,11 @@ public class User {
     private String role = "USER";
 
     private String avatarUrl;
+
+    // Bumped through WardrobeVersionService only; never written through the entity
+    @JsonIgnore
+    @Builder.Default
+    @Column(name = "wardrobe_version", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "bigint not null default 0")
+    private long wardrobeVersion = 0;
 }
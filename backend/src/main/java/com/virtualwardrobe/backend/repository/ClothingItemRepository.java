@@ -1,10 +1,56 @@
 package com.virtualwardrobe.backend.repository;
 
+import com.virtualwardrobe.backend.dto.ClothingItemResponse;
 import com.virtualwardrobe.backend.model.ClothingItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface ClothingItemRepository extends JpaRepository<ClothingItem, UUID> {
     List<ClothingItem> findAllByUserId(UUID userId);
+
+    @Query("select i.user.id from ClothingItem i where i.id = :id")
+    Optional<UUID> findUserIdById(@Param("id") UUID id);
+
+    @Query("select i.imagePath from ClothingItem i where i.id = :id")
+    Optional<String> findImagePathById(@Param("id") UUID id);
+
+    /** Keyset page ordered by id, projected straight into the response DTO; null filters match everything. */
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.ClothingItemResponse(
+                i.id, i.name, i.category, i.colour, i.imagePath, i.brand, i.season, i.user.id)
+            from ClothingItem i
+            where i.user.id = :userId
+              and i.id > :after
+              and (:category is null or i.category = :category)
+              and (:season is null or lower(i.season) = lower(:season))
+              and (:colour is null or lower(i.colour) = lower(:colour))
+            order by i.id
+            """)
+    List<ClothingItemResponse> findPageByUserId(@Param("userId") UUID userId,
+                                                @Param("after") UUID after,
+                                                @Param("category") String category,
+                                                @Param("season") String season,
+                                                @Param("colour") String colour,
+                                                Limit limit);
+
+    /** Cursor-backed stream for exports; must be consumed inside a transaction and closed. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.ClothingItemResponse(
+                i.id, i.name, i.category, i.colour, i.imagePath, i.brand, i.season, i.user.id)
+            from ClothingItem i
+            where i.user.id = :userId
+            order by i.id
+            """)
+    Stream<ClothingItemResponse> streamByUserId(@Param("userId") UUID userId);
 }
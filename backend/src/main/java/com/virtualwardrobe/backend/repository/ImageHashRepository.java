@@ -0,0 +1,26 @@
+package com.virtualwardrobe.backend.repository;
+
+import com.virtualwardrobe.backend.model.ImageHash;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface ImageHashRepository extends JpaRepository<ImageHash, ImageHash.Key> {
+
+    @Query("select h.url from ImageHash h where h.sha256 = :sha256 and h.store = :store")
+    Optional<String> findUrl(@Param("sha256") String sha256, @Param("store") String store);
+
+    /** Records the URL unless another upload of the same content got there first. */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO image_hashes (sha256, store, url, created_at)
+            VALUES (:sha256, :store, :url, now())
+            ON CONFLICT (sha256, store) DO NOTHING
+            """)
+    int insertIfAbsent(@Param("sha256") String sha256, @Param("store") String store, @Param("url") String url);
+}
@@ -0,0 +1,109 @@
+package com.virtualwardrobe.backend.repository;
+
+import com.virtualwardrobe.backend.dto.ItemWearResponse;
+import com.virtualwardrobe.backend.model.ItemWearStats;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface ItemWearStatsRepository extends JpaRepository<ItemWearStats, UUID> {
+
+    /** Counts one wear on {@code wornOn} for every item currently in the outfit. */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO item_wear_stats (item_id, user_id, category, season, wear_count, first_worn, last_worn)
+            SELECT ci.id, ci.user_id, ci.category, lower(ci.season), 1, :wornOn, :wornOn
+            FROM outfit_items oi JOIN clothing_items ci ON ci.id = oi.clothing_item_id
+            WHERE oi.outfit_id = :outfitId
+            ON CONFLICT (item_id) DO UPDATE SET
+                wear_count = item_wear_stats.wear_count + 1,
+                first_worn = LEAST(item_wear_stats.first_worn, EXCLUDED.first_worn),
+                last_worn = GREATEST(item_wear_stats.last_worn, EXCLUDED.last_worn)
+            """)
+    int recordWear(@Param("outfitId") UUID outfitId, @Param("wornOn") LocalDate wornOn);
+
+    /**
+     * Creates the zero row for a new item so it shows up as never worn, or brings an existing
+     * row's category and season in line with an edited item; the counters are left alone.
+     */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO item_wear_stats (item_id, user_id, category, season, wear_count)
+            SELECT ci.id, ci.user_id, ci.category, lower(ci.season), 0
+            FROM clothing_items ci
+            WHERE ci.id = :itemId
+            ON CONFLICT (item_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                category = EXCLUDED.category,
+                season = EXCLUDED.season
+            WHERE (item_wear_stats.user_id, item_wear_stats.category, item_wear_stats.season)
+                IS DISTINCT FROM (EXCLUDED.user_id, EXCLUDED.category, EXCLUDED.season)
+            """)
+    int insertForItem(@Param("itemId") UUID itemId);
+
+    /** Recomputes the rows of one user's items from outfit_history; used by the rebuild job. */
+    @Transactional
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO item_wear_stats (item_id, user_id, category, season, wear_count, first_worn, last_worn)
+            SELECT ci.id, ci.user_id, ci.category, lower(ci.season), count(h.id), min(h.worn_on), max(h.worn_on)
+            FROM clothing_items ci
+            LEFT JOIN outfit_items oi ON oi.clothing_item_id = ci.id
+            LEFT JOIN outfit_history h ON h.outfit_id = oi.outfit_id
+            WHERE ci.user_id = :userId
+            GROUP BY ci.id, ci.user_id, ci.category, ci.season
+            ON CONFLICT (item_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                category = EXCLUDED.category,
+                season = EXCLUDED.season,
+                wear_count = EXCLUDED.wear_count,
+                first_worn = EXCLUDED.first_worn,
+                last_worn = EXCLUDED.last_worn
+            """)
+    int rebuildForUser(@Param("userId") UUID userId);
+
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.ItemWearResponse(
+                i.id, i.name, i.category, i.season, i.imagePath, s.wearCount, s.firstWorn, s.lastWorn)
+            from ItemWearStats s join ClothingItem i on i.id = s.itemId
+            where s.userId = :userId and s.category = :category
+            order by s.wearCount, s.itemId
+            """)
+    List<ItemWearResponse> findLeastWorn(@Param("userId") UUID userId,
+                                         @Param("category") String category,
+                                         Limit limit);
+
+    /** {@code season} must be lower-case; rows store it that way. */
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.ItemWearResponse(
+                i.id, i.name, i.category, i.season, i.imagePath, s.wearCount, s.firstWorn, s.lastWorn)
+            from ItemWearStats s join ClothingItem i on i.id = s.itemId
+            where s.userId = :userId and s.category = :category and s.season = :season
+            order by s.wearCount, s.itemId
+            """)
+    List<ItemWearResponse> findLeastWornInSeason(@Param("userId") UUID userId,
+                                                 @Param("category") String category,
+                                                 @Param("season") String season,
+                                                 Limit limit);
+
+    /** Items never worn come first, then the longest unworn. */
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.ItemWearResponse(
+                i.id, i.name, i.category, i.season, i.imagePath, s.wearCount, s.firstWorn, s.lastWorn)
+            from ItemWearStats s join ClothingItem i on i.id = s.itemId
+            where s.userId = :userId and (s.lastWorn is null or s.lastWorn < :since)
+            order by s.lastWorn asc nulls first, s.itemId
+            """)
+    List<ItemWearResponse> findNotWornSince(@Param("userId") UUID userId,
+                                            @Param("since") LocalDate since,
+                                            Limit limit);
+}
@@ -1,11 +1,53 @@
 package com.virtualwardrobe.backend.repository;
 
+import com.virtualwardrobe.backend.dto.OutfitHistoryResponse;
 import com.virtualwardrobe.backend.model.OutfitHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface OutfitHistoryRepository extends JpaRepository<OutfitHistory, UUID> {
-    List<OutfitHistory> findByOutfit_User_Id(UUID userId);
+    /**
+     * Keyset page of history entries worn between {@code from} and {@code to} (inclusive), newest
+     * first, strictly after the ({@code beforeWornOn}, {@code beforeId}) cursor. The outfit is
+     * joined in the same statement, so a page costs exactly one query.
+     */
+    @Query("""
+            select new com.virtualwardrobe.backend.dto.OutfitHistoryResponse(h.id, o.id, o.name, h.wornOn)
+            from OutfitHistory h join h.outfit o
+            where o.user.id = :userId
+              and h.wornOn between :from and :to
+              and (h.wornOn < :beforeWornOn or (h.wornOn = :beforeWornOn and h.id < :beforeId))
+            order by h.wornOn desc, h.id desc
+            """)
+    List<OutfitHistoryResponse> findPageByUserId(@Param("userId") UUID userId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to,
+                                                 @Param("beforeWornOn") LocalDate beforeWornOn,
+                                                 @Param("beforeId") UUID beforeId,
+                                                 Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select h.id as id, h.outfit.id as outfitId, h.wornOn as wornOn
+            from OutfitHistory h
+            where h.outfit.user.id = :userId
+            order by h.wornOn, h.id
+            """)
+    Stream<HistoryEntryView> streamByUserId(@Param("userId") UUID userId);
+
+    interface HistoryEntryView {
+        UUID getId();
+        UUID getOutfitId();
+        LocalDate getWornOn();
+    }
 }
@@ -1,15 +1,79 @@
 package com.virtualwardrobe.backend.repository;
 
 import com.virtualwardrobe.backend.model.Outfit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface OutfitRepository extends JpaRepository<Outfit, UUID> {
 
+    @Query("select o.user.id from Outfit o where o.id = :id")
+    Optional<UUID> findUserIdById(@Param("id") UUID id);
+
     @EntityGraph(attributePaths = "items")
     List<Outfit> findByUserId(UUID userId);
-}
 
+    /** Keyset page of outfits, newest first, strictly after the ({@code createdAt}, {@code id}) cursor. */
+    @Query("""
+            select o.id as id, o.name as name, o.createdAt as createdAt
+            from Outfit o
+            where o.user.id = :userId
+              and (o.createdAt < :beforeCreatedAt or (o.createdAt = :beforeCreatedAt and o.id < :beforeId))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OutfitSummaryView> findPageByUserId(@Param("userId") UUID userId,
+                                             @Param("beforeCreatedAt") Instant beforeCreatedAt,
+                                             @Param("beforeId") UUID beforeId,
+                                             Limit limit);
+
+    @Query("""
+            select o.id as outfitId, i.id as id, i.name as name, i.category as category, i.colour as colour,
+                   i.imagePath as imagePath, i.brand as brand, i.season as season
+            from Outfit o join o.items i
+            where o.id in :outfitIds
+            """)
+    List<OutfitItemView> findItemsByOutfitIds(@Param("outfitIds") Collection<UUID> outfitIds);
+
+    /** One row per (outfit, item) pair, grouped by outfit; outfits without items yield a null item id. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select o.id as id, o.name as name, o.createdAt as createdAt, i.id as itemId
+            from Outfit o left join o.items i
+            where o.user.id = :userId
+            order by o.id
+            """)
+    Stream<OutfitItemIdView> streamItemIdsByUserId(@Param("userId") UUID userId);
+
+    interface OutfitSummaryView {
+        UUID getId();
+        String getName();
+        Instant getCreatedAt();
+    }
+
+    interface OutfitItemIdView extends OutfitSummaryView {
+        UUID getItemId();
+    }
+
+    interface OutfitItemView {
+        UUID getOutfitId();
+        UUID getId();
+        String getName();
+        String getCategory();
+        String getColour();
+        String getImagePath();
+        String getBrand();
+        String getSeason();
+    }
+}
@@ -1,10 +1,32 @@
 package com.virtualwardrobe.backend.repository;
 
 import com.virtualwardrobe.backend.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
+
+    @Query("select u.wardrobeVersion from User u where u.id = :id")
+    Optional<Long> findWardrobeVersion(@Param("id") UUID id);
+
+    @Query("select u.id from User u")
+    List<UUID> findAllIds();
+
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+
+    /** Replaces the hash only if it is still {@code oldHash}, so a concurrent password change wins. */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePassword(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
@@ -7,21 +7,20 @@ import com.virtualwardrobe.backend.model.User;
 import com.virtualwardrobe.backend.repository.UserRepository;
 import com.virtualwardrobe.backend.config.JwtUtil;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtUtil jwtUtil;
 
     public User signup(SignupRequest request) {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHashingService.hash(request.getPassword()))
                 .role("USER")
                 .build();
         return userRepository.save(user);
@@ -31,7 +30,7 @@ public class AuthService {
         User user = userRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.verify(user, request.getPassword())) {
             throw new RuntimeException("Invalid password");
         }
 
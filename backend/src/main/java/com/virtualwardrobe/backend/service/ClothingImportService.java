@@ -0,0 +1,221 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.dto.ImportReport;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
+
+/**
+ * Bulk-loads clothing items from CSV in the {@code clothing_items.csv} layout
+ * ({@code id, category, colour, image_path, brand, season, user_id, name}, header required).
+ * <p>
+ * The input is parsed record by record and written as one multi-row insert per
+ * {@code import.batch-size} rows, each batch committed on its own. Ids come from the file or are
+ * generated up front, so no round trip is needed per row. The insert returns the ids it actually
+ * wrote, so rows that collide with an existing id (or an earlier row of the file) are reported
+ * exactly, as are rows that fail validation or reference an unknown user.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClothingImportService {
+
+    private static final List<String> COLUMNS =
+            List.of("id", "category", "colour", "image_path", "brand", "season", "user_id", "name");
+
+    private static final String INSERT_SQL = """
+            INSERT INTO clothing_items (id, category, colour, image_path, brand, season, user_id, name)
+            SELECT * FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::uuid[], ?::text[])
+            ON CONFLICT (id) DO NOTHING
+            RETURNING id
+            """;
+
+    private static final String INSERT_STATS_SQL = """
+            INSERT INTO item_wear_stats (item_id, user_id, category, season, wear_count)
+            SELECT id, user_id, category, lower(season), 0 FROM clothing_items WHERE id = ANY(?)
+            ON CONFLICT (item_id) DO NOTHING
+            """;
+
+    /** Positions in {@link #COLUMNS} holding UUIDs; the rest are text. */
+    private static final Set<Integer> UUID_COLUMNS = Set.of(0, 6);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final WardrobeIndex wardrobeIndex;
+    private final WardrobeVersionService wardrobeVersionService;
+
+    @Value("${import.batch-size:1000}") private int batchSize;
+    @Value("${import.max-reported-errors:1000}") private int maxReportedErrors;
+
+    /**
+     * Imports every row of {@code csv}. When {@code userId} is given it overrides the
+     * {@code user_id} column, which may then be omitted.
+     */
+    public ImportReport importCsv(InputStream csv, UUID userId) throws IOException {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), 64 * 1024));
+        List<String> header = reader.next();
+        if (header == null) {
+            return new ImportReport(0, 0, 0, List.of());
+        }
+        int[] positions = columnPositions(header, userId != null);
+
+        Report report = new Report(maxReportedErrors);
+        Map<UUID, Boolean> knownUsers = new HashMap<>();
+        Set<UUID> touchedUsers = new HashSet<>();
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long[] batchLines = new long[batchSize];
+
+        try {
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                report.rowsRead++;
+                long line = reader.recordLine();
+                Object[] row;
+                try {
+                    row = toRow(record, positions, userId);
+                } catch (IllegalArgumentException e) {
+                    report.fail(line, e.getMessage());
+                    continue;
+                }
+
+                UUID owner = (UUID) row[6];
+                if (!knownUsers.computeIfAbsent(owner, userRepository::existsById)) {
+                    report.fail(line, "Unknown user " + owner);
+                    continue;
+                }
+                touchedUsers.add(owner);
+
+                batchLines[batch.size()] = line;
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    flush(batch, batchLines, report);
+                }
+            }
+            flush(batch, batchLines, report);
+        } finally {
+            touchedUsers.forEach(wardrobeIndex::invalidate);
+            touchedUsers.forEach(wardrobeVersionService::bump);
+        }
+
+        log.info("CSV import: {} rows read, {} imported, {} failed", report.rowsRead, report.imported, report.failed);
+        return new ImportReport(report.rowsRead, report.imported, report.failed, report.errors);
+    }
+
+    private void flush(List<Object[]> batch, long[] batchLines, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<UUID> inserted = jdbcTemplate.execute((ConnectionCallback<Set<UUID>>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    boolean uuid = UUID_COLUMNS.contains(c);
+                    Object[] column = uuid ? new UUID[batch.size()] : new String[batch.size()];
+                    for (int r = 0; r < batch.size(); r++) {
+                        column[r] = batch.get(r)[c];
+                    }
+                    insert.setArray(c + 1, connection.createArrayOf(uuid ? "uuid" : "text", column));
+                }
+                Set<UUID> ids = new HashSet<>(batch.size() * 2);
+                try (ResultSet rows = insert.executeQuery()) {
+                    while (rows.next()) {
+                        ids.add(rows.getObject(1, UUID.class));
+                    }
+                }
+                return ids;
+            }
+        });
+        if (!inserted.isEmpty()) {
+            jdbcTemplate.update(INSERT_STATS_SQL,
+                    statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", inserted.toArray())));
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            // remove() so that a second row with the same id in this batch counts as the duplicate
+            if (inserted.remove((UUID) batch.get(i)[0])) {
+                report.imported++;
+            } else {
+                report.fail(batchLines[i], "Duplicate id " + batch.get(i)[0]);
+            }
+        }
+        batch.clear();
+    }
+
+    private static int[] columnPositions(List<String> header, boolean userOverride) {
+        int[] positions = new int[COLUMNS.size()];
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            positions[c] = header.indexOf(COLUMNS.get(c));
+        }
+        for (String required : List.of("category", "image_path", "name")) {
+            if (positions[COLUMNS.indexOf(required)] < 0) {
+                throw new IllegalArgumentException("CSV header is missing column " + required);
+            }
+        }
+        if (!userOverride && positions[COLUMNS.indexOf("user_id")] < 0) {
+            throw new IllegalArgumentException("CSV header is missing column user_id");
+        }
+        return positions;
+    }
+
+    /** Converts a record to insert parameters in {@link #COLUMNS} order. */
+    private static Object[] toRow(List<String> record, int[] positions, UUID userId) {
+        Object[] row = new Object[COLUMNS.size()];
+        for (int c = 0; c < positions.length; c++) {
+            if (positions[c] >= 0 && positions[c] < record.size()) {
+                String value = record.get(positions[c]).trim();
+                row[c] = value.isEmpty() ? null : value;
+            }
+        }
+
+        row[0] = row[0] == null ? UUID.randomUUID() : parseUuid((String) row[0], "id");
+        row[6] = userId != null ? userId : parseUuid((String) row[6], "user_id");
+        for (int c : new int[]{1, 3, 7}) {
+            if (row[c] == null) {
+                throw new IllegalArgumentException("Missing " + COLUMNS.get(c));
+            }
+        }
+        return row;
+    }
+
+    private static UUID parseUuid(String value, String column) {
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static final class Report {
+        final int maxErrors;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+    }
+}
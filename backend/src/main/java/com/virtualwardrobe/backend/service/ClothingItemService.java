@@ -1,27 +1,80 @@
 package com.virtualwardrobe.backend.service;
 
+import com.virtualwardrobe.backend.dto.ClothingItemResponse;
+import com.virtualwardrobe.backend.dto.CursorPage;
+import com.virtualwardrobe.backend.dto.FacetSearchResponse;
 import com.virtualwardrobe.backend.model.ClothingItem;
 import com.virtualwardrobe.backend.repository.ClothingItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class ClothingItemService {
     private final ClothingItemRepository clothingItemRepository;
+    private final WardrobeIndex wardrobeIndex;
+    private final WearStatsService wearStatsService;
+    private final ThumbnailService thumbnailService;
+    private final WardrobeVersionService wardrobeVersionService;
 
     public ClothingItem save(ClothingItem item) {
-        return clothingItemRepository.save(item);
+        ClothingItem saved = clothingItemRepository.save(item);
+        wearStatsService.onItemSaved(saved.getId());
+        thumbnailService.request(saved.getImagePath());
+        if (saved.getUser() != null) {
+            wardrobeIndex.onSaved(saved.getUser().getId(), saved);
+            wardrobeVersionService.bump(saved.getUser().getId());
+        }
+        return saved;
     }
 
-    public List<ClothingItem> findAllByUserId(UUID userId) {
-        return clothingItemRepository.findAllByUserId(userId);
+    public List<WardrobeItem> findAllByUserId(UUID userId) {
+        return wardrobeIndex.get(userId).items();
+    }
+
+    public CursorPage<ClothingItemResponse> findPage(UUID userId, String cursor, Integer limit,
+                                                     String category, String season, String colour) {
+        int pageSize = PageCursors.clampLimit(limit);
+        UUID after = cursor == null ? PageCursors.MIN_UUID : PageCursors.decodeId(cursor);
+
+        List<ClothingItemResponse> rows = clothingItemRepository.findPageByUserId(
+                userId, after, category, season, colour, Limit.of(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<ClothingItemResponse> page = rows.subList(0, pageSize);
+        return new CursorPage<>(page, PageCursors.encodeId(page.get(pageSize - 1).getId()));
+    }
+
+    /**
+     * Ids of the items matching every given facet (any of the values within one facet), with
+     * per-facet value counts. Answered from the cached wardrobe snapshot's bitmap index, which is
+     * replaced along with the snapshot on every save and delete.
+     */
+    public FacetSearchResponse searchFacets(UUID userId, Map<String, List<String>> selected) {
+        UserWardrobe wardrobe = wardrobeIndex.get(userId);
+        WardrobeFacets.Result result = wardrobe.facets().search(selected);
+        List<UUID> ids = new ArrayList<>(result.rows().length);
+        for (int row : result.rows()) {
+            ids.add(wardrobe.items().get(row).getId());
+        }
+        return new FacetSearchResponse(ids, result.counts());
     }
 
     public void delete(UUID id) {
-        clothingItemRepository.deleteById(id);
+        clothingItemRepository.findById(id).ifPresent(item -> {
+            clothingItemRepository.delete(item);
+            if (item.getUser() != null) {
+                wardrobeIndex.onDeleted(item.getUser().getId(), id);
+                wardrobeVersionService.bump(item.getUser().getId());
+            }
+        });
     }
 }
@@ -1,26 +0,0 @@
-package com.virtualwardrobe.backend.service;
-
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
-import lombok.RequiredArgsConstructor;
-import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
-
-import java.io.IOException;
-import java.util.Map;
-
-@Service
-@RequiredArgsConstructor
-public class CloudinaryService {
-
-    private final Cloudinary cloudinary;
-
-    public String upload(MultipartFile file) {
-        try {
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap());
-            return uploadResult.get("secure_url").toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to upload file", e);
-        }
-    }
-}
@@ -0,0 +1,102 @@
+package com.virtualwardrobe.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: quoted fields, doubled quotes and line breaks inside quotes.
+ * Only the current record is held in memory, so arbitrarily large files can be read.
+ */
+final class CsvReader {
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int line = 1;
+    private int recordLine;
+    private int pushback = -2;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /** Line number at which the record last returned by {@link #next()} started. */
+    int recordLine() {
+        return recordLine;
+    }
+
+    /** Returns the next record, or null at end of input. */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            skipLineBreak(c);
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+
+        recordLine = line;
+        List<String> record = new ArrayList<>(8);
+        boolean quoted = false;
+        field.setLength(0);
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                record.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                record.add(field.toString());
+                if (c != -1) {
+                    skipLineBreak(c);
+                }
+                return record;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /** Consumes the rest of a line break starting with {@code c}. */
+    private void skipLineBreak(int c) throws IOException {
+        line++;
+        if (c == '\r') {
+            int next = read();
+            if (next != '\n') {
+                pushback = next;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
@@ -0,0 +1,199 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.virtualwardrobe.backend.repository.ImageHashRepository;
+import com.virtualwardrobe.backend.service.storage.ImageStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single entry point for image uploads.
+ * <p>
+ * The multipart body is streamed to a temp file on the request thread and hashed on the way
+ * (SHA-256), never held as a {@code byte[]}. If the same content was stored before, or is being
+ * stored right now, the existing URL is returned without touching the image store. The store upload
+ * then runs on a bounded pool, and the servlet thread is released while it waits on the remote
+ * call. Heap use per upload stays constant, and a full pool rejects new uploads instead of
+ * queueing them without bound.
+ */
+@Slf4j
+@Service
+public class ImageUploadService implements MeterBinder {
+
+    private final ImageStore imageStore;
+    private final ImageHashRepository imageHashRepository;
+    private final Bulkheads bulkheads;
+    private final Timer uploadTimer;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter dedupHits;
+    private final Counter dedupMisses;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder lookups = new LongAdder();
+
+    public ImageUploadService(ImageStore imageStore,
+                              ImageHashRepository imageHashRepository,
+                              Bulkheads bulkheads,
+                              MeterRegistry meterRegistry,
+                              @Value("${image.upload.threads:4}") int threads,
+                              @Value("${image.upload.queue-capacity:32}") int queueCapacity,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.imageStore = imageStore;
+        this.imageHashRepository = imageHashRepository;
+        this.bulkheads = bulkheads;
+        this.dedupHits = meterRegistry.counter("wardrobe.image.dedup", "result", "hit");
+        this.dedupMisses = meterRegistry.counter("wardrobe.image.dedup", "result", "miss");
+        this.uploadTimer = meterRegistry.timer("wardrobe.image.upload", "store", imageStore.name());
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("image-upload-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "image-upload-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Uploads {@code file} to the configured store and completes with its public URL.
+     *
+     * @throws RejectedExecutionException when the upload pool and its queue are full
+     */
+    public CompletableFuture<String> upload(MultipartFile file, String folder) throws IOException {
+        Path temp = Files.createTempFile("upload-", suffix(file.getOriginalFilename()));
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            lookups.increment();
+
+            String existing = imageHashRepository.findUrl(hash, imageStore.name()).orElse(null);
+            if (existing != null) {
+                hit();
+                Files.deleteIfExists(temp);
+                return CompletableFuture.completedFuture(existing);
+            }
+
+            CompletableFuture<String> result = new CompletableFuture<>();
+            CompletableFuture<String> pending = inFlight.putIfAbsent(hash, result);
+            if (pending != null) {
+                // Identical content is being uploaded by another request; share its result
+                hit();
+                Files.deleteIfExists(temp);
+                return pending;
+            }
+
+            dedupMisses.increment();
+            try {
+                CompletableFuture.supplyAsync(() -> storeAndDelete(temp, folder, hash), executor)
+                        .whenComplete((url, error) -> {
+                            inFlight.remove(hash, result);
+                            if (error != null) {
+                                result.completeExceptionally(error);
+                            } else {
+                                result.complete(url);
+                            }
+                        });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(hash, result);
+                throw e;
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /** Fraction of uploads answered from the hash table or a concurrent identical upload. */
+    public double dedupHitRatio() {
+        long total = lookups.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    private void hit() {
+        hits.increment();
+        dedupHits.increment();
+    }
+
+    private String storeAndDelete(Path temp, String folder, String hash) {
+        Timer.Sample sample = Timer.start();
+        try {
+            String url = bulkheads.imageStore().call(() -> imageStore.store(temp, folder));
+            imageHashRepository.insertIfAbsent(hash, imageStore.name(), url);
+            return url;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to upload file", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to upload file", e);
+        } finally {
+            sample.stop(uploadTimer);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                log.warn("Could not delete temp upload {}", temp, e);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registry.gauge("wardrobe.image.upload.active", executor, ThreadPoolExecutor::getActiveCount);
+        registry.gauge("wardrobe.image.upload.queued", executor, e -> e.getQueue().size());
+        Gauge.builder("wardrobe.image.dedup.hit.ratio", this, ImageUploadService::dedupHitRatio)
+                .description("Share of uploads served from an existing image with the same SHA-256")
+                .register(registry);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String suffix(String filename) {
+        if (filename == null) {
+            return ".tmp";
+        }
+        int dot = filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : ".tmp";
+    }
+}
@@ -0,0 +1,11 @@
+package com.virtualwardrobe.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends IllegalArgumentException {
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("Invalid cursor: " + cursor, cause);
+    }
+}
@@ -1,23 +1,65 @@
 package com.virtualwardrobe.backend.service;
 
+import com.virtualwardrobe.backend.dto.CursorPage;
+import com.virtualwardrobe.backend.dto.OutfitHistoryResponse;
 import com.virtualwardrobe.backend.model.OutfitHistory;
 import com.virtualwardrobe.backend.repository.OutfitHistoryRepository;
+import com.virtualwardrobe.backend.repository.OutfitRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class OutfitHistoryService {
+    // Bounds used when the caller leaves the range open; both are valid PostgreSQL dates
+    static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
     private final OutfitHistoryRepository outfitHistoryRepository;
+    private final OutfitRepository outfitRepository;
+    private final WearStatsService wearStatsService;
+    private final WardrobeVersionService wardrobeVersionService;
 
+    @Transactional
     public OutfitHistory save(OutfitHistory history) {
-        return outfitHistoryRepository.save(history);
+        OutfitHistory saved = outfitHistoryRepository.save(history);
+        if (saved.getOutfit() != null && saved.getOutfit().getId() != null && saved.getWornOn() != null) {
+            wearStatsService.recordWear(saved.getOutfit().getId(), saved.getWornOn());
+        }
+        if (saved.getOutfit() != null && saved.getOutfit().getId() != null) {
+            outfitRepository.findUserIdById(saved.getOutfit().getId()).ifPresent(wardrobeVersionService::bump);
+        }
+        return saved;
+    }
+
+    /** Every history entry of the user, newest first, in one query. */
+    public List<OutfitHistoryResponse> findByUserId(UUID userId) {
+        return outfitHistoryRepository.findPageByUserId(
+                userId, EARLIEST, LATEST, LATEST, PageCursors.MAX_UUID, Limit.unlimited());
     }
 
-    public List<OutfitHistory> findByUserId(UUID userId) {
-        return outfitHistoryRepository.findByOutfit_User_Id(userId);
+    public CursorPage<OutfitHistoryResponse> findPage(UUID userId, LocalDate from, LocalDate to,
+                                                      String cursor, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        LocalDate rangeFrom = from == null ? EARLIEST : from;
+        LocalDate rangeTo = to == null ? LATEST : to;
+        LocalDate beforeWornOn = cursor == null ? LATEST : PageCursors.decodeDate(cursor);
+        UUID beforeId = cursor == null ? PageCursors.MAX_UUID : PageCursors.decodeTimeId(cursor);
+
+        List<OutfitHistoryResponse> rows = outfitHistoryRepository.findPageByUserId(
+                userId, rangeFrom, rangeTo, beforeWornOn, beforeId, Limit.of(pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<OutfitHistoryResponse> page = rows.subList(0, pageSize);
+        OutfitHistoryResponse last = page.get(pageSize - 1);
+        return new CursorPage<>(page, PageCursors.encodeDateAndId(last.getWornOn(), last.getId()));
     }
 }
@@ -1,6 +1,7 @@
 package com.virtualwardrobe.backend.service;
 
 import com.virtualwardrobe.backend.dto.ClothingItemResponse;
+import com.virtualwardrobe.backend.dto.CursorPage;
 import com.virtualwardrobe.backend.dto.OutfitRequest;
 import com.virtualwardrobe.backend.dto.OutfitResponse;
 import com.virtualwardrobe.backend.model.ClothingItem;
@@ -11,10 +12,11 @@ import com.virtualwardrobe.backend.repository.OutfitRepository;
 import com.virtualwardrobe.backend.repository.UserRepository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.UUID;
+import java.time.Instant;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +25,7 @@ public class OutfitService {
     private final OutfitRepository outfitRepository;
     private final UserRepository userRepository;
     private final ClothingItemRepository clothingItemRepository;
+    private final WardrobeVersionService wardrobeVersionService;
 
     public OutfitResponse save(OutfitRequest request) {
         if (request.getUserId() == null) {
@@ -45,6 +48,7 @@ public class OutfitService {
             .build();
 
         Outfit saved = outfitRepository.save(outfit);
+        wardrobeVersionService.bump(user.getId());
 
         return new OutfitResponse(
             saved.getId(),
@@ -89,7 +93,56 @@ public class OutfitService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * One keyset page of outfits, newest first, assembled from two projection queries (outfits,
+     * then their items) without loading any entities.
+     */
+    public CursorPage<OutfitResponse> findPage(UUID userId, String cursor, Integer limit) {
+        int pageSize = PageCursors.clampLimit(limit);
+        Instant beforeCreatedAt = cursor == null ? Instant.parse("9999-12-31T23:59:59Z") : PageCursors.decodeTime(cursor);
+        UUID beforeId = cursor == null ? PageCursors.MAX_UUID : PageCursors.decodeTimeId(cursor);
+
+        List<OutfitRepository.OutfitSummaryView> rows = outfitRepository.findPageByUserId(
+                userId, beforeCreatedAt, beforeId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<OutfitRepository.OutfitSummaryView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        if (page.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+
+        Map<UUID, List<ClothingItemResponse>> itemsByOutfit = new HashMap<>();
+        for (OutfitRepository.OutfitItemView item : outfitRepository.findItemsByOutfitIds(
+                page.stream().map(OutfitRepository.OutfitSummaryView::getId).toList())) {
+            itemsByOutfit.computeIfAbsent(item.getOutfitId(), id -> new ArrayList<>())
+                    .add(new ClothingItemResponse(
+                            item.getId(),
+                            item.getName(),
+                            item.getCategory(),
+                            item.getColour(),
+                            item.getImagePath(),
+                            item.getBrand(),
+                            item.getSeason(),
+                            userId
+                    ));
+        }
+
+        List<OutfitResponse> outfits = page.stream()
+                .map(outfit -> new OutfitResponse(
+                        outfit.getId(),
+                        outfit.getName(),
+                        outfit.getCreatedAt(),
+                        userId,
+                        itemsByOutfit.getOrDefault(outfit.getId(), List.of())
+                ))
+                .toList();
+
+        OutfitRepository.OutfitSummaryView last = page.get(page.size() - 1);
+        return new CursorPage<>(outfits, hasMore ? PageCursors.encodeTimeAndId(last.getCreatedAt(), last.getId()) : null);
+    }
+
     public void delete(UUID outfitId) {
+        UUID userId = outfitRepository.findUserIdById(outfitId).orElse(null);
         outfitRepository.deleteById(outfitId);
+        wardrobeVersionService.bump(userId);
     }
 }
@@ -0,0 +1,91 @@
+package com.virtualwardrobe.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursors. A cursor is the sort key of the last row on a page, encoded URL-safe so
+ * clients pass it back verbatim. A cursor that does not decode is rejected with
+ * {@link InvalidCursorException}, a 400.
+ */
+public final class PageCursors {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    /** Sorts before every UUID in PostgreSQL's byte-wise ordering. */
+    static final UUID MIN_UUID = new UUID(0, 0);
+    /** Sorts after every UUID in PostgreSQL's byte-wise ordering. */
+    static final UUID MAX_UUID = new UUID(-1, -1);
+
+    private PageCursors() {
+    }
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static String encode(String... parts) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join("|", parts).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String[] decode(String cursor, int parts) {
+        String[] decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+        if (decoded.length != parts) {
+            throw new InvalidCursorException(cursor, null);
+        }
+        return decoded;
+    }
+
+    /** Decodes and parses in one step, so a malformed part is reported like a malformed cursor. */
+    private static <T> T parse(String cursor, int parts, Function<String[], T> parser) {
+        String[] decoded = decode(cursor, parts);
+        try {
+            return parser.apply(decoded);
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
+
+    static UUID decodeId(String cursor) {
+        return parse(cursor, 1, parts -> UUID.fromString(parts[0]));
+    }
+
+    static String encodeId(UUID id) {
+        return encode(id.toString());
+    }
+
+    static String encodeTimeAndId(Instant time, UUID id) {
+        return encode(time.toString(), id.toString());
+    }
+
+    static Instant decodeTime(String cursor) {
+        return parse(cursor, 2, parts -> Instant.parse(parts[0]));
+    }
+
+    static String encodeDateAndId(LocalDate date, UUID id) {
+        return encode(date.toString(), id.toString());
+    }
+
+    static LocalDate decodeDate(String cursor) {
+        return parse(cursor, 2, parts -> LocalDate.parse(parts[0]));
+    }
+
+    /** Id half of a two-part cursor produced by {@link #encodeTimeAndId} or {@link #encodeDateAndId}. */
+    static UUID decodeTimeId(String cursor) {
+        return parse(cursor, 2, parts -> UUID.fromString(parts[1]));
+    }
+}
@@ -0,0 +1,11 @@
+package com.virtualwardrobe.backend.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,161 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.config.CustomUserDetailsService;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs every BCrypt hash and verification on a dedicated pool with one thread per core and a short
+ * queue. A login or signup burst therefore uses at most the machine's cores instead of every
+ * request thread, and once the queue is full callers get a 429 immediately rather than waiting
+ * behind it.
+ * <p>
+ * Hashes with a cost other than {@code password.bcrypt.strength} are re-hashed in the background
+ * after a successful login, so changing the cost needs no migration.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  UserRepository userRepository,
+                                  CustomUserDetailsService userDetailsService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${password.bcrypt.strength:10}") int strength,
+                                  @Value("${password.hashing.threads:0}") int threads,
+                                  @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${password.hashing.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.userDetailsService = userDetailsService;
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = meterRegistry.timer("wardrobe.auth.password.encode");
+        this.verifyTimer = meterRegistry.timer("wardrobe.auth.password.verify");
+        this.rejected = meterRegistry.counter("wardrobe.auth.password.rejected");
+        this.rehashed = meterRegistry.counter("wardrobe.auth.password.rehashed");
+        Gauge.builder("wardrobe.auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public String hash(String rawPassword) {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> verifyTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword))));
+    }
+
+    /**
+     * Verifies {@code rawPassword} against the user's stored hash and, on success, schedules an
+     * upgrade if the hash was made with a different cost. The upgrade is skipped when the pool is
+     * busy; the next login will try again.
+     */
+    public boolean verify(User user, String rawPassword) {
+        String stored = user.getPassword();
+        if (!matches(rawPassword, stored)) {
+            return false;
+        }
+        if (needsRehash(stored)) {
+            try {
+                submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)))
+                        .thenAccept(upgraded -> {
+                            if (userRepository.updatePassword(user.getId(), stored, upgraded) > 0) {
+                                userDetailsService.evict(user.getEmail());
+                                rehashed.increment();
+                            }
+                        })
+                        .exceptionally(e -> {
+                            log.warn("Password rehash failed for user {}", user.getId(), e);
+                            return null;
+                        });
+            } catch (PasswordHashingBusyException e) {
+                log.debug("Skipping password rehash for user {}: hashing pool busy", user.getId());
+            }
+        }
+        return true;
+    }
+
+    boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException("Too many password operations in progress");
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            rejected.increment();
+            throw new PasswordHashingBusyException("Password hashing timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while hashing password");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.virtualwardrobe.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Fixed-size JPEG thumbnails of item images, generated once and kept in an on-disk cache.
+ * <p>
+ * Entries are content addressed: the file name is the SHA-256 of the source URL and the thumbnail
+ * size, and image URLs are immutable (Cloudinary versions them, the local store never overwrites),
+ * so the key doubles as a strong ETag. Generation runs on a small bounded pool and concurrent
+ * requests for the same image share one job. When the cache outgrows
+ * {@code thumbnails.max-bytes}, the least recently served files are deleted until it is back
+ * under 90% of the limit.
+ * <p>
+ * Image paths are client supplied, so only URLs under one of {@code thumbnails.allowed-origins}
+ * (the image stores) are ever fetched, and redirects are not followed.
+ */
+@Slf4j
+@Service
+public class ThumbnailService {
+
+    @Value("${thumbnails.dir:${java.io.tmpdir}/wardrobe-thumbnails}") private String dir;
+    @Value("${thumbnails.size:256}") private int size;
+    @Value("${thumbnails.max-bytes:536870912}") private long maxBytes;
+    @Value("${thumbnails.threads:2}") private int threads;
+    @Value("${thumbnails.queue-capacity:256}") private int queueCapacity;
+    @Value("${thumbnails.allowed-origins:https://res.cloudinary.com/${cloudinary.cloud-name:}/,${image.local.public-url:http://localhost:8080/images}/}")
+    private List<String> allowedOrigins;
+
+    private Path root;
+    private List<URI> allowedBases;
+    private ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final MeterRegistry meterRegistry;
+    private final Counter generated;
+    private final Counter evicted;
+
+    public ThumbnailService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.generated = meterRegistry.counter("wardrobe.thumbnails.generated");
+        this.evicted = meterRegistry.counter("wardrobe.thumbnails.evicted");
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Files.createDirectories(Path.of(dir)).toAbsolutePath().normalize();
+        allowedBases = allowedOrigins.stream()
+                .map(String::trim)
+                .filter(origin -> !origin.isEmpty())
+                .map(origin -> URI.create(origin).normalize())
+                .toList();
+        try (Stream<Path> files = Files.walk(root)) {
+            cachedBytes.set(files.filter(Files::isRegularFile).mapToLong(ThumbnailService::sizeOf).sum());
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("wardrobe.thumbnails.cache.bytes", cachedBytes, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("wardrobe.thumbnails.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Cache key of the thumbnail for {@code imagePath}; also its ETag. */
+    public String key(String imagePath) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(imagePath.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Integer.toString(size).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Short content version of an image path, for cache-busting thumbnail URLs: a thumbnail URL
+     * that carries the current version can be cached forever.
+     */
+    public static String version(String imagePath) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(imagePath.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * True if {@code imagePath} is an http(s) URL under one of the configured image-store origins:
+     * same scheme, host and port, and a path inside the origin's path. Anything else, including
+     * URLs with user info or dot segments that escape the base path, is rejected.
+     */
+    public boolean isAllowed(String imagePath) {
+        if (imagePath == null) {
+            return false;
+        }
+        URI uri;
+        try {
+            uri = new URI(imagePath).normalize();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        if (!isHttp(uri) || uri.getHost() == null || uri.getRawUserInfo() != null || uri.getPath() == null
+                || Arrays.asList(uri.getPath().split("/")).contains("..")) {
+            return false; // decoded path checked too, so %2e%2e cannot climb out of the base path
+        }
+        for (URI base : allowedBases) {
+            if (isHttp(base)
+                    && base.getScheme().equalsIgnoreCase(uri.getScheme())
+                    && base.getHost() != null && base.getHost().equalsIgnoreCase(uri.getHost())
+                    && port(base) == port(uri)
+                    && uri.getRawPath().startsWith(base.getRawPath() == null ? "/" : base.getRawPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Returns the cached thumbnail, marking it as recently used, or null if it is not generated yet. */
+    public Path cached(String key) {
+        Path file = pathFor(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            return null; // evicted between the check and the touch
+        }
+        return file;
+    }
+
+    /**
+     * Queues generation of the thumbnail for {@code imagePath} unless it is cached or already
+     * being generated. Returns false if the worker queue is full or the image is not in an
+     * allowed image store.
+     */
+    public boolean request(String imagePath) {
+        if (!isAllowed(imagePath)) {
+            return false;
+        }
+        String key = key(imagePath);
+        if (Files.isRegularFile(pathFor(key))) {
+            return true;
+        }
+        CompletableFuture<Path> job = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, job) != null) {
+            return true;
+        }
+        try {
+            CompletableFuture.supplyAsync(() -> generate(imagePath, key), executor)
+                    .whenComplete((path, error) -> {
+                        inFlight.remove(key, job);
+                        if (error != null) {
+                            log.warn("Thumbnail generation failed for {}", imagePath, error);
+                            job.completeExceptionally(error);
+                        } else {
+                            job.complete(path);
+                        }
+                    });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, job);
+            return false;
+        }
+    }
+
+    private Path generate(String imagePath, String key) {
+        Path target = pathFor(key);
+        try {
+            if (!isAllowed(imagePath)) {
+                throw new IOException("Image URL outside the allowed image stores: " + imagePath);
+            }
+            BufferedImage source;
+            HttpURLConnection connection = (HttpURLConnection) URI.create(imagePath).toURL().openConnection();
+            connection.setInstanceFollowRedirects(false); // a redirect could point anywhere
+            connection.setConnectTimeout(5_000);
+            connection.setReadTimeout(10_000);
+            try (InputStream in = connection.getInputStream()) {
+                if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Image fetch returned " + connection.getResponseCode() + ": " + imagePath);
+                }
+                source = ImageIO.read(in);
+            } finally {
+                connection.disconnect();
+            }
+            if (source == null) {
+                throw new IOException("Unsupported image format: " + imagePath);
+            }
+
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".part");
+            try {
+                if (!ImageIO.write(scale(source, size), "jpg", temp.toFile())) {
+                    throw new IOException("No JPEG writer available");
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            generated.increment();
+            if (cachedBytes.addAndGet(sizeOf(target)) > maxBytes) {
+                evict();
+            }
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fits {@code source} into a {@code max x max} box, keeping the aspect ratio. Large images are
+     * halved repeatedly before the final bilinear step, which keeps quality close to a bicubic
+     * resize at a fraction of the cost.
+     */
+    static BufferedImage scale(BufferedImage source, int max) {
+        double ratio = Math.min(1.0, (double) max / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setColor(Color.WHITE); // JPEG has no alpha; flatten transparent PNGs onto white
+                g.fillRect(0, 0, width, height);
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return; // another worker is already evicting
+        }
+        try {
+            long goal = maxBytes * 9 / 10;
+            if (cachedBytes.get() <= goal) {
+                return;
+            }
+            List<Path> files = new ArrayList<>();
+            try (Stream<Path> walk = Files.walk(root)) {
+                walk.filter(path -> path.toString().endsWith(".jpg")).forEach(files::add);
+            }
+            files.sort(Comparator.comparing(ThumbnailService::lastUsed));
+            for (Path file : files) {
+                if (cachedBytes.get() <= goal) {
+                    break;
+                }
+                long bytes = sizeOf(file);
+                if (Files.deleteIfExists(file)) {
+                    cachedBytes.addAndGet(-bytes);
+                    evicted.increment();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Thumbnail cache eviction failed", e);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static boolean isHttp(URI uri) {
+        return "https".equalsIgnoreCase(uri.getScheme()) || "http".equalsIgnoreCase(uri.getScheme());
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key + ".jpg");
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastUsed(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime();
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
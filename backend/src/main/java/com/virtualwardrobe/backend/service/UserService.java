@@ -3,7 +3,6 @@ package com.virtualwardrobe.backend.service;
 import com.virtualwardrobe.backend.model.User;
 import com.virtualwardrobe.backend.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -13,17 +12,18 @@ import java.util.Optional;
 public class UserService {
 
     private final UserRepository userRepository;
-
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHashingService passwordHashingService;
 
     public User signup(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashingService.hash(user.getPassword()));
+        user.setRole("USER"); // never trust a role from the signup body
+        user.setId(null);
         return userRepository.save(user);
     }
 
     public Optional<User> login(String email, String rawPassword) {
         Optional<User> user = userRepository.findByEmail(email);
-        if (user.isPresent() && passwordEncoder.matches(rawPassword, user.get().getPassword())) {
+        if (user.isPresent() && passwordHashingService.verify(user.get(), rawPassword)) {
             return user;
         }
         return Optional.empty();
@@ -0,0 +1,113 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import com.virtualwardrobe.backend.service.ai.WardrobeFeatures;
+
+import java.util.*;
+
+/**
+ * Immutable, indexed snapshot of one user's wardrobe held by {@link WardrobeIndex}. Items are
+ * {@link WardrobeItem} copies, never the JPA entities, since snapshots are shared between threads.
+ * <p>
+ * Sub-indexes map a category, season or colour to the rows of {@link #features()} holding matching
+ * items. Season and colour keys are lower-cased; categories are kept as stored. The bitmap
+ * {@link #facets()} index is built on first use, so snapshots that are never filtered skip it.
+ */
+public final class UserWardrobe {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    /** Rough per-item heap cost of the item snapshot, its strings, index entries and facet columns. */
+    private static final long BYTES_PER_ITEM = 664 + ItemFeatureEncoder.FEATURES * Float.BYTES;
+
+    private final UUID userId;
+    private final WardrobeFeatures features;
+    private final Map<String, int[]> byCategory;
+    private final Map<String, int[]> bySeason;
+    private final Map<String, int[]> byColour;
+    private volatile WardrobeFacets facets;
+
+    UserWardrobe(UUID userId, WardrobeFeatures features) {
+        this.userId = userId;
+        this.features = features;
+
+        Map<String, List<Integer>> categories = new HashMap<>();
+        Map<String, List<Integer>> seasons = new HashMap<>();
+        Map<String, List<Integer>> colours = new HashMap<>();
+        List<WardrobeItem> items = features.items();
+        for (int row = 0; row < items.size(); row++) {
+            WardrobeItem item = items.get(row);
+            add(categories, item.getCategory(), row);
+            add(seasons, lower(item.getSeason()), row);
+            add(colours, lower(item.getColour()), row);
+        }
+        this.byCategory = freeze(categories);
+        this.bySeason = freeze(seasons);
+        this.byColour = freeze(colours);
+    }
+
+    public UUID userId() {
+        return userId;
+    }
+
+    public WardrobeFeatures features() {
+        return features;
+    }
+
+    public List<WardrobeItem> items() {
+        return features.items();
+    }
+
+    public int size() {
+        return features.size();
+    }
+
+    public int[] categoryRows(String category) {
+        return category == null ? NO_ROWS : byCategory.getOrDefault(category, NO_ROWS);
+    }
+
+    public int[] seasonRows(String season) {
+        return season == null ? NO_ROWS : bySeason.getOrDefault(lower(season), NO_ROWS);
+    }
+
+    public int[] colourRows(String colour) {
+        return colour == null ? NO_ROWS : byColour.getOrDefault(lower(colour), NO_ROWS);
+    }
+
+    public WardrobeFacets facets() {
+        WardrobeFacets built = facets;
+        if (built == null) {
+            built = new WardrobeFacets(items());
+            facets = built; // a racing build produces an equal index
+        }
+        return built;
+    }
+
+    public List<WardrobeItem> itemsAt(int[] rows) {
+        List<WardrobeItem> items = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            items.add(features.items().get(row));
+        }
+        return items;
+    }
+
+    long estimatedBytes() {
+        return 256 + size() * BYTES_PER_ITEM;
+    }
+
+    private static void add(Map<String, List<Integer>> index, String key, int row) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(row);
+        }
+    }
+
+    private static Map<String, int[]> freeze(Map<String, List<Integer>> index) {
+        Map<String, int[]> frozen = new HashMap<>(index.size() * 2);
+        index.forEach((key, rows) -> frozen.put(key, rows.stream().mapToInt(Integer::intValue).toArray()));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
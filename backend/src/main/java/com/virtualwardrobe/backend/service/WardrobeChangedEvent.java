@@ -0,0 +1,7 @@
+package com.virtualwardrobe.backend.service;
+
+import java.util.UUID;
+
+/** Published after a committed write to a user's clothing, outfits or history. */
+public record WardrobeChangedEvent(UUID userId, long version) {
+}
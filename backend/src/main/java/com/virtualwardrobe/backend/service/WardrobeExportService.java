@@ -0,0 +1,111 @@
+package com.virtualwardrobe.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.virtualwardrobe.backend.dto.ClothingItemResponse;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.repository.OutfitHistoryRepository;
+import com.virtualwardrobe.backend.repository.OutfitRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's full wardrobe as NDJSON: one {@code {"type": ..., "data": ...}} object per line,
+ * clothing items first, then outfits with their item ids, then outfit history.
+ * <p>
+ * Each section is read through a database cursor and written as it arrives. At most one outfit's
+ * item ids are held at a time, so memory stays flat regardless of how much the user has stored.
+ */
+@Service
+@RequiredArgsConstructor
+public class WardrobeExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final ClothingItemRepository clothingItemRepository;
+    private final OutfitRepository outfitRepository;
+    private final OutfitHistoryRepository outfitHistoryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(UUID userId, OutputStream out) throws IOException {
+        int written;
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(out)) {
+
+            written = 0;
+            try (Stream<ClothingItemResponse> items = clothingItemRepository.streamByUserId(userId)) {
+                for (Iterator<ClothingItemResponse> it = items.iterator(); it.hasNext(); ) {
+                    writer.write(new ExportLine("clothingItem", it.next()));
+                    written = flushPeriodically(writer, written);
+                }
+            }
+
+            try (Stream<OutfitRepository.OutfitItemIdView> rows = outfitRepository.streamItemIdsByUserId(userId)) {
+                ExportedOutfit current = null;
+                for (Iterator<OutfitRepository.OutfitItemIdView> it = rows.iterator(); it.hasNext(); ) {
+                    OutfitRepository.OutfitItemIdView row = it.next();
+                    if (current == null || !current.id().equals(row.getId())) {
+                        if (current != null) {
+                            writer.write(new ExportLine("outfit", current));
+                            written = flushPeriodically(writer, written);
+                        }
+                        current = new ExportedOutfit(row.getId(), row.getName(), row.getCreatedAt(), new ArrayList<>());
+                    }
+                    if (row.getItemId() != null) {
+                        current.itemIds().add(row.getItemId());
+                    }
+                }
+                if (current != null) {
+                    writer.write(new ExportLine("outfit", current));
+                    written = flushPeriodically(writer, written);
+                }
+            }
+
+            try (Stream<OutfitHistoryRepository.HistoryEntryView> history = outfitHistoryRepository.streamByUserId(userId)) {
+                for (Iterator<OutfitHistoryRepository.HistoryEntryView> it = history.iterator(); it.hasNext(); ) {
+                    OutfitHistoryRepository.HistoryEntryView entry = it.next();
+                    writer.write(new ExportLine("history",
+                            new ExportedHistory(entry.getId(), entry.getOutfitId(), entry.getWornOn())));
+                    written = flushPeriodically(writer, written);
+                }
+            }
+            writer.flush();
+        }
+        if (written > 0) {
+            // The writer only separates values; NDJSON terminates every line, the last one included
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private static int flushPeriodically(SequenceWriter writer, int written) throws IOException {
+        if (++written % FLUSH_EVERY == 0) {
+            writer.flush();
+        }
+        return written;
+    }
+
+    record ExportLine(String type, Object data) {
+    }
+
+    record ExportedOutfit(UUID id, String name, Instant createdAt, List<UUID> itemIds) {
+    }
+
+    record ExportedHistory(UUID id, UUID outfitId, LocalDate wornOn) {
+    }
+}
@@ -0,0 +1,162 @@
+package com.virtualwardrobe.backend.service;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bitmap index over the filterable attributes of one {@link UserWardrobe} snapshot.
+ * <p>
+ * Every facet is a dictionary-encoded column: its distinct values in sorted order, a value code
+ * per row (-1 where the item has none) and a compressed bitmap of rows per code. A search ORs the
+ * bitmaps of the values selected within a facet and ANDs the facets together. The counts for a
+ * facet ignore that facet's own selection, so they tell how many items each alternative value
+ * would match under the other filters. Keys are normalized like {@link UserWardrobe}'s: categories
+ * as stored, everything else lower-cased.
+ */
+public final class WardrobeFacets {
+
+    public static final List<String> FACETS = List.of("category", "colour", "season", "brand");
+
+    /**
+     * Below this many candidate rows per distinct value, counting scans the column instead of
+     * intersecting bitmaps. Intersecting sparse (array) containers walks the candidates once per
+     * value, so the bitmaps only win once candidates are dense.
+     */
+    private static final int SCAN_ROWS_PER_VALUE = 1024;
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+
+    WardrobeFacets(List<WardrobeItem> items) {
+        all.add(0L, (long) items.size());
+        columns.put("category", new Column(items, WardrobeItem::getCategory));
+        columns.put("colour", new Column(items, item -> lower(item.getColour())));
+        columns.put("season", new Column(items, item -> lower(item.getSeason())));
+        columns.put("brand", new Column(items, item -> lower(item.getBrand())));
+    }
+
+    /**
+     * Rows matching every facet in {@code selected}, plus per-facet value counts. Facets that are
+     * absent or have no values are not filtered on.
+     *
+     * @throws IllegalArgumentException for a facet not in {@link #FACETS}
+     */
+    public Result search(Map<String, ? extends Collection<String>> selected) {
+        Map<String, RoaringBitmap> filters = new LinkedHashMap<>();
+        selected.forEach((facet, values) -> {
+            Column column = columns.get(facet);
+            if (column == null) {
+                throw new IllegalArgumentException("Unknown facet: " + facet);
+            }
+            if (values != null && !values.isEmpty()) {
+                filters.put(facet, column.rowsOf(values, !facet.equals("category")));
+            }
+        });
+
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        columns.forEach((facet, column) -> counts.put(facet, column.counts(intersect(filters, facet))));
+        return new Result(intersect(filters, null).toArray(), counts);
+    }
+
+    /** AND of all filters except {@code skipped}'s; every row when there are none. */
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> filters, String skipped) {
+        RoaringBitmap result = null;
+        for (Map.Entry<String, RoaringBitmap> filter : filters.entrySet()) {
+            if (filter.getKey().equals(skipped)) {
+                continue;
+            }
+            result = result == null ? filter.getValue().clone() : RoaringBitmap.and(result, filter.getValue());
+        }
+        return result == null ? all : result;
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Column {
+
+        private final String[] values;
+        private final int[] codes;
+        private final RoaringBitmap[] rows;
+
+        Column(List<WardrobeItem> items, Function<WardrobeItem, String> key) {
+            String[] keys = new String[items.size()];
+            SortedSet<String> distinct = new TreeSet<>();
+            for (int row = 0; row < keys.length; row++) {
+                String value = key.apply(items.get(row));
+                if (value != null && !value.isBlank()) {
+                    keys[row] = value;
+                    distinct.add(value);
+                }
+            }
+
+            values = distinct.toArray(new String[0]);
+            Map<String, Integer> dictionary = new HashMap<>(values.length * 2);
+            for (int code = 0; code < values.length; code++) {
+                dictionary.put(values[code], code);
+            }
+            rows = new RoaringBitmap[values.length];
+            for (int code = 0; code < values.length; code++) {
+                rows[code] = new RoaringBitmap();
+            }
+            codes = new int[keys.length];
+            for (int row = 0; row < keys.length; row++) {
+                int code = keys[row] == null ? -1 : dictionary.get(keys[row]);
+                codes[row] = code;
+                if (code >= 0) {
+                    rows[code].add(row);
+                }
+            }
+            for (RoaringBitmap bitmap : rows) {
+                bitmap.runOptimize();
+            }
+        }
+
+        RoaringBitmap rowsOf(Collection<String> selected, boolean lowerCase) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (String value : selected) {
+                int code = value == null ? -1 : Arrays.binarySearch(values, lowerCase ? lower(value) : value);
+                if (code >= 0) {
+                    union.or(rows[code]);
+                }
+            }
+            return union;
+        }
+
+        Map<String, Integer> counts(RoaringBitmap candidates) {
+            int[] perValue = new int[values.length];
+            long candidateRows = candidates.getCardinality();
+            if (candidateRows == codes.length) {
+                for (int code = 0; code < values.length; code++) {
+                    perValue[code] = rows[code].getCardinality(); // every row is a candidate
+                }
+            } else if (candidateRows < (long) values.length * SCAN_ROWS_PER_VALUE) {
+                PeekableIntIterator it = candidates.getIntIterator();
+                while (it.hasNext()) {
+                    int code = codes[it.next()];
+                    if (code >= 0) {
+                        perValue[code]++;
+                    }
+                }
+            } else {
+                for (int code = 0; code < values.length; code++) {
+                    perValue[code] = RoaringBitmap.andCardinality(rows[code], candidates);
+                }
+            }
+
+            Map<String, Integer> counts = new LinkedHashMap<>(values.length * 2);
+            for (int code = 0; code < values.length; code++) {
+                counts.put(values[code], perValue[code]);
+            }
+            return counts;
+        }
+    }
+
+    /** Matching rows in ascending order, and per facet every known value with its count. */
+    public record Result(int[] rows, Map<String, Map<String, Integer>> counts) {
+    }
+}
@@ -0,0 +1,177 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-memory index of users' wardrobes, evicting the least recently used users once either
+ * {@code wardrobe.index.max-users} or the {@code wardrobe.index.max-bytes} memory estimate is exceeded.
+ * <p>
+ * Writes go to the database first and are then applied to the cached snapshot, so a cached
+ * wardrobe never has to be reloaded after a save or delete. Loads and patches for the same user
+ * are serialized on a lock stripe, so a write cannot be lost to a load that is still in flight.
+ * Entities are copied into immutable {@link WardrobeItem}s on the way in, so nothing cached can be
+ * changed by, or lazily load through, the session that read it.
+ */
+@Component
+@RequiredArgsConstructor
+public class WardrobeIndex implements MeterBinder {
+
+    private static final int STRIPES = 64;
+
+    private final ClothingItemRepository clothingItemRepository;
+    private final ItemFeatureEncoder encoder;
+
+    @Value("${wardrobe.index.max-users:10000}") private int maxUsers;
+    @Value("${wardrobe.index.max-bytes:134217728}") private long maxBytes;
+
+    private final LinkedHashMap<UUID, UserWardrobe> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Object[] stripes = createStripes();
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserWardrobe get(UUID userId) {
+        UserWardrobe cached = lookup(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        synchronized (stripe(userId)) {
+            cached = lookup(userId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            UserWardrobe loaded = new UserWardrobe(userId,
+                    encoder.encodeAll(clothingItemRepository.findAllByUserId(userId)));
+            store(userId, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Returns the cached wardrobe, or loads one without caching it. For batch jobs that walk every
+     * user and would otherwise evict the wardrobes of users who are actually online.
+     */
+    public UserWardrobe peek(UUID userId) {
+        UserWardrobe cached = lookup(userId);
+        if (cached != null) {
+            return cached;
+        }
+        return new UserWardrobe(userId, encoder.encodeAll(clothingItemRepository.findAllByUserId(userId)));
+    }
+
+    public void onSaved(UUID userId, ClothingItem item) {
+        WardrobeItem snapshot = WardrobeItem.from(item);
+        patch(userId, wardrobe -> new UserWardrobe(userId, wardrobe.features().with(snapshot, encoder)));
+    }
+
+    public void onDeleted(UUID userId, UUID itemId) {
+        patch(userId, wardrobe -> new UserWardrobe(userId, wardrobe.features().without(itemId)));
+    }
+
+    public void invalidate(UUID userId) {
+        synchronized (stripe(userId)) {
+            synchronized (entries) {
+                UserWardrobe removed = entries.remove(userId);
+                if (removed != null) {
+                    totalBytes -= removed.estimatedBytes();
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        synchronized (entries) {
+            return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalBytes);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wardrobe.index.users", this, index -> index.stats().users())
+                .description("Users whose wardrobe is cached")
+                .register(registry);
+        Gauge.builder("wardrobe.index.bytes", this, index -> index.stats().estimatedBytes())
+                .description("Estimated heap held by the wardrobe index")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("wardrobe.index.requests", hits, LongAdder::sum).tag("result", "hit").register(registry);
+        FunctionCounter.builder("wardrobe.index.requests", misses, LongAdder::sum).tag("result", "miss").register(registry);
+        FunctionCounter.builder("wardrobe.index.evictions", evictions, LongAdder::sum).register(registry);
+    }
+
+    private void patch(UUID userId, UnaryOperator<UserWardrobe> update) {
+        synchronized (stripe(userId)) {
+            UserWardrobe cached;
+            synchronized (entries) {
+                cached = entries.get(userId);
+            }
+            if (cached != null) {
+                store(userId, update.apply(cached));
+            }
+        }
+    }
+
+    private UserWardrobe lookup(UUID userId) {
+        synchronized (entries) {
+            return entries.get(userId);
+        }
+    }
+
+    private void store(UUID userId, UserWardrobe wardrobe) {
+        synchronized (entries) {
+            UserWardrobe previous = entries.put(userId, wardrobe);
+            if (previous != null) {
+                totalBytes -= previous.estimatedBytes();
+            }
+            totalBytes += wardrobe.estimatedBytes();
+
+            Iterator<Map.Entry<UUID, UserWardrobe>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxUsers || totalBytes > maxBytes) && eldest.hasNext()) {
+                Map.Entry<UUID, UserWardrobe> entry = eldest.next();
+                if (entry.getKey().equals(userId)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue().estimatedBytes();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private Object stripe(UUID userId) {
+        return stripes[(userId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private static Object[] createStripes() {
+        Object[] locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    public record Stats(long hits, long misses, long evictions, int users, long estimatedBytes) {
+    }
+}
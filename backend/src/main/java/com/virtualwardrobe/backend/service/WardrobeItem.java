@@ -0,0 +1,36 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Immutable copy of a {@link ClothingItem} as held by {@link WardrobeIndex} snapshots, which are
+ * shared between request threads. Unlike the entity it has no setters and no lazy {@code user}
+ * association, only the owner's id, so it can be read anywhere without a persistence context.
+ */
+@Value
+public class WardrobeItem {
+    UUID id;
+    UUID userId;
+    String name;
+    String imagePath;
+    String category;
+    String colour;
+    String season;
+    String brand;
+
+    public static WardrobeItem from(ClothingItem item) {
+        return new WardrobeItem(
+                item.getId(),
+                item.getUser() != null ? item.getUser().getId() : null,
+                item.getName(),
+                item.getImagePath(),
+                item.getCategory(),
+                item.getColour(),
+                item.getSeason(),
+                item.getBrand()
+        );
+    }
+}
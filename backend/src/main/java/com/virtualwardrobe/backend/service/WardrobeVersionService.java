@@ -0,0 +1,98 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user wardrobe version: a counter in {@code users.wardrobe_version} bumped by every write to
+ * the user's clothing, outfits or history. It backs strong ETags on the listing endpoints.
+ * <p>
+ * Known versions are cached in memory, so a conditional GET is answered without a query. The
+ * cache only learns a bumped version once the surrounding transaction commits, and drops the entry
+ * on rollback, so it never hands out a version the database does not have.
+ */
+@Service
+public class WardrobeVersionService {
+
+    private static final String BUMP_SQL =
+            "UPDATE users SET wardrobe_version = wardrobe_version + 1 WHERE id = ? RETURNING wardrobe_version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEntries;
+    private final ConcurrentHashMap<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    public WardrobeVersionService(JdbcTemplate jdbcTemplate,
+                                  UserRepository userRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${wardrobe.version.cache-entries:100000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxEntries = maxEntries;
+    }
+
+    /** Current version, or 0 for an unknown user. */
+    public long current(UUID userId) {
+        Long cached = versions.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = userRepository.findWardrobeVersion(userId).orElse(0L);
+        remember(userId, version);
+        return version;
+    }
+
+    /** Strong ETag for anything derived from the user's wardrobe at its current version. */
+    public String etag(UUID userId) {
+        return "\"" + userId + "-" + current(userId) + "\"";
+    }
+
+    /** Increments the user's version; joins the caller's transaction if there is one. */
+    public void bump(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        Long version = jdbcTemplate.queryForObject(BUMP_SQL, Long.class, userId);
+        if (version == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.remove(userId); // readers fall back to the database until commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        published(userId, version);
+                    } else {
+                        versions.remove(userId);
+                    }
+                }
+            });
+        } else {
+            published(userId, version);
+        }
+    }
+
+    private void published(UUID userId, long version) {
+        versions.merge(userId, version, Math::max);
+        eventPublisher.publishEvent(new WardrobeChangedEvent(userId, version));
+    }
+
+    private void remember(UUID userId, long version) {
+        if (versions.size() >= maxEntries) {
+            versions.clear(); // cheap reset; entries reload with one primary-key lookup each
+        }
+        versions.merge(userId, version, Math::max);
+    }
+}
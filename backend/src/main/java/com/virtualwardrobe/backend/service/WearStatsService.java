@@ -0,0 +1,124 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.dto.ItemWearResponse;
+import com.virtualwardrobe.backend.repository.ItemWearStatsRepository;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-item wear statistics. Rows are created with each item and bumped whenever history is
+ * recorded, so the read side is a plain index range scan instead of an aggregation over
+ * {@code outfit_history} and {@code outfit_items}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WearStatsService {
+    private final ItemWearStatsRepository itemWearStatsRepository;
+    private final UserRepository userRepository;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wear-stats-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile RebuildReport lastRebuild;
+
+    public void onItemSaved(UUID itemId) {
+        itemWearStatsRepository.insertForItem(itemId);
+    }
+
+    /** Joins the caller's transaction so the history row and the counters commit together. */
+    public void recordWear(UUID outfitId, LocalDate wornOn) {
+        itemWearStatsRepository.recordWear(outfitId, wornOn);
+    }
+
+    public List<ItemWearResponse> leastWorn(UUID userId, String category, String season, Integer limit) {
+        Limit pageSize = Limit.of(PageCursors.clampLimit(limit));
+        if (season == null || season.isBlank()) {
+            return itemWearStatsRepository.findLeastWorn(userId, category, pageSize);
+        }
+        return itemWearStatsRepository.findLeastWornInSeason(
+                userId, category, season.toLowerCase(Locale.ROOT), pageSize);
+    }
+
+    public List<ItemWearResponse> notWornFor(UUID userId, int days, Integer limit) {
+        LocalDate since = LocalDate.now().minusDays(days);
+        return itemWearStatsRepository.findNotWornSince(userId, since, Limit.of(PageCursors.clampLimit(limit)));
+    }
+
+    /**
+     * Starts recomputing every row from the raw history on a background thread, one user per
+     * transaction so the job never holds long locks; {@link #latest()} reports the last finished
+     * run. Intended for back-filling existing data; wears recorded for a user while that user's
+     * rebuild statement runs may be counted twice or not at all.
+     *
+     * @return false if a rebuild is already running
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            rebuilder.execute(() -> {
+                try {
+                    rebuildAll();
+                } catch (RuntimeException e) {
+                    log.error("Wear statistics rebuild failed", e);
+                } finally {
+                    rebuilding.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuilding.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public RebuildReport latest() {
+        return lastRebuild;
+    }
+
+    /** Recomputes one user's rows on the calling thread; returns the number of items written. */
+    public int rebuildForUser(UUID userId) {
+        return itemWearStatsRepository.rebuildForUser(userId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuildAll() {
+        long started = System.currentTimeMillis();
+        List<UUID> userIds = userRepository.findAllIds();
+        long items = 0;
+        for (UUID userId : userIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.warn("Wear statistics rebuild stopped after {} items", items);
+                return;
+            }
+            items += itemWearStatsRepository.rebuildForUser(userId);
+        }
+        RebuildReport report = new RebuildReport(userIds.size(), items, System.currentTimeMillis() - started);
+        log.info("Rebuilt wear statistics: {}", report);
+        lastRebuild = report;
+    }
+
+    public record RebuildReport(int users, long items, long millis) {
+    }
+}
@@ -0,0 +1,156 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import com.virtualwardrobe.backend.service.ai.vector.FlatVectorIndex;
+import com.virtualwardrobe.backend.service.ai.vector.HnswVectorIndex;
+import com.virtualwardrobe.backend.service.ai.vector.VectorIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "What goes with this item": nearest neighbours of the item in embedding space, restricted to
+ * other categories.
+ * <p>
+ * Items are embedded as their unit-length feature vectors. The query is the model's prediction
+ * for the opposite garment (the predicted bottom for a top and vice versa, their mean for anything
+ * else); without a model it is the item itself minus its category, which matches on season and
+ * colour. Each wardrobe snapshot gets its own index, built on first use: an exact SIMD scan, which
+ * for these short vectors beats a graph up to tens of thousands of items, and for snapshots of at
+ * least {@code vectors.hnsw.min-items} items an HNSW graph built in the background, with the scan
+ * answering until it is ready. Snapshots are replaced on every write, so an index never needs
+ * updating and is dropped together with its snapshot.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ComplementService {
+
+    private static final int FEATURES = ItemFeatureEncoder.FEATURES;
+    private static final int CATEGORY_FEATURES = ItemFeatureEncoder.CATEGORIES.size();
+
+    private final WardrobeIndex wardrobeIndex;
+    private final ClothingItemRepository clothingItemRepository;
+    private final InferenceBatcher inferenceBatcher;
+
+    @Value("${vectors.hnsw.min-items:20000}") private int hnswMinItems;
+    @Value("${vectors.hnsw.m:16}") private int hnswM;
+    @Value("${vectors.hnsw.ef-construction:100}") private int hnswEfConstruction;
+    @Value("${vectors.hnsw.ef-search:64}") private int hnswEfSearch;
+
+    private final Map<UserWardrobe, VectorIndex> indexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // One graph build at a time; snapshots that arrive while the queue is full keep their flat index
+    private final ThreadPoolExecutor graphBuilder = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "hnsw-builder");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    @PostConstruct
+    public void checkVectorApi() {
+        if (!FlatVectorIndex.simdAvailable()) {
+            log.warn("Vector API unavailable, complement scans run scalar; start the JVM with "
+                    + "--add-modules=jdk.incubator.vector (see run.sh)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        graphBuilder.shutdownNow();
+    }
+
+    /** Empty if the item does not exist. */
+    public Optional<List<Complement>> complements(UUID itemId, int k) throws Exception {
+        Optional<UUID> owner = clothingItemRepository.findUserIdById(itemId);
+        if (owner.isEmpty()) {
+            return Optional.empty();
+        }
+        UserWardrobe wardrobe = wardrobeIndex.get(owner.get());
+        List<WardrobeItem> items = wardrobe.items();
+        int row = rowOf(items, itemId);
+        if (row < 0) {
+            return Optional.empty();
+        }
+
+        WardrobeItem item = items.get(row);
+        float[] query = query(wardrobe.features().matrix(), row, item.getCategory());
+        String category = item.getCategory();
+        List<VectorIndex.Neighbor> neighbors = index(wardrobe).search(query, k,
+                candidate -> candidate != row && !Objects.equals(items.get(candidate).getCategory(), category));
+
+        List<Complement> complements = new ArrayList<>(neighbors.size());
+        for (VectorIndex.Neighbor neighbor : neighbors) {
+            complements.add(new Complement(items.get(neighbor.row()), neighbor.score()));
+        }
+        return Optional.of(complements);
+    }
+
+    private VectorIndex index(UserWardrobe wardrobe) {
+        VectorIndex index = indexes.get(wardrobe);
+        if (index != null) {
+            return index;
+        }
+        float[] rows = wardrobe.features().matrix().clone();
+        for (int row = 0; row < wardrobe.size(); row++) {
+            VectorIndex.normalize(rows, row * FEATURES, FEATURES);
+        }
+        index = FlatVectorIndex.of(rows, FEATURES);
+        if (indexes.putIfAbsent(wardrobe, index) == null && wardrobe.size() >= hnswMinItems) {
+            graphBuilder.execute(() -> indexes.replace(wardrobe, HnswVectorIndex.build(
+                    rows, FEATURES, hnswM, hnswEfConstruction, hnswEfSearch, wardrobe.userId().hashCode())));
+        }
+        return indexes.getOrDefault(wardrobe, index);
+    }
+
+    private float[] query(float[] matrix, int row, String category) throws Exception {
+        float[] features = Arrays.copyOfRange(matrix, row * FEATURES, (row + 1) * FEATURES);
+        float[] predictions = inferenceBatcher.infer(features, 1);
+
+        float[] query;
+        if (predictions != null && predictions.length == 2 * FEATURES) {
+            query = switch (category == null ? "" : category) {
+                case "tops" -> Arrays.copyOfRange(predictions, FEATURES, 2 * FEATURES);
+                case "bottoms" -> Arrays.copyOfRange(predictions, 0, FEATURES);
+                default -> {
+                    float[] mean = new float[FEATURES];
+                    for (int f = 0; f < FEATURES; f++) {
+                        mean[f] = (predictions[f] + predictions[FEATURES + f]) / 2;
+                    }
+                    yield mean;
+                }
+            };
+        } else {
+            query = features;
+            Arrays.fill(query, 0, CATEGORY_FEATURES, 0f);
+        }
+        return VectorIndex.normalize(query, 0, FEATURES);
+    }
+
+    private static int rowOf(List<WardrobeItem> items, UUID itemId) {
+        for (int i = 0; i < items.size(); i++) {
+            if (itemId.equals(items.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public record Complement(WardrobeItem item, double score) {
+    }
+}
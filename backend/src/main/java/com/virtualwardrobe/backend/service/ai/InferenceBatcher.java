@@ -0,0 +1,261 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent inference requests into a single {@code [N, features]} ONNX call.
+ * <p>
+ * Callers block on {@link #infer(float[], int)} while a dispatcher thread drains the queue for
+ * at most {@code onnx.batch.max-wait-micros} or until {@code onnx.batch.max-size} rows are
+ * collected, runs them together and hands every caller its own slice of the output. A caller that
+ * gives up after {@code onnx.batch.timeout-ms} withdraws its request, so abandoned work does not
+ * take batch slots when the model is already behind.
+ */
+@Slf4j
+@Service
+public class InferenceBatcher implements MeterBinder {
+
+    private final OnnxService onnxService;
+    private final Bulkheads bulkheads;
+
+    @Value("${onnx.batch.enabled:true}") private boolean enabled;
+    @Value("${onnx.batch.max-size:32}") private int maxBatchSize;
+    @Value("${onnx.batch.max-wait-micros:2000}") private long maxWaitMicros;
+    @Value("${onnx.batch.queue-depth:1024}") private int queueDepth;
+    @Value("${onnx.batch.timeout-ms:2000}") private long timeoutMs;
+
+    private BlockingQueue<PendingInference> queue;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedRows = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private AtomicLongArray batchSizeCounts;
+
+    // Only touched by the dispatcher thread; grown on demand and reused across batches
+    private float[] batchInput = new float[0];
+    private float[] batchOutput = new float[0];
+
+    public InferenceBatcher(OnnxService onnxService, Bulkheads bulkheads) {
+        this.onnxService = onnxService;
+        this.bulkheads = bulkheads;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueDepth);
+        batchSizeCounts = new AtomicLongArray(maxBatchSize + 1);
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "onnx-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        PendingInference pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new CancellationException("Inference batcher stopped"));
+        }
+    }
+
+    /**
+     * Runs inference for {@code rows} feature vectors packed row-major in {@code features} and
+     * returns the model output rows packed the same way. Falls back to a direct call when
+     * batching is disabled or the model is not loaded. At most {@code bulkhead.inference.permits}
+     * callers are inside at once; the rest fail fast with a 503.
+     */
+    public float[] infer(float[] features, int rows) throws Exception {
+        return bulkheads.inference().call(() -> inferUnguarded(features, rows));
+    }
+
+    private float[] inferUnguarded(float[] features, int rows) throws Exception {
+        int width = features.length / rows;
+        if (!onnxService.isAvailable()) {
+            return onnxService.runModel(features, new long[]{rows, width});
+        }
+        if (!enabled) {
+            return onnxService.runBatch(features, rows, width);
+        }
+
+        PendingInference pending = new PendingInference(features, rows, width);
+        if (!queue.offer(pending)) {
+            throw new RejectedExecutionException("Inference queue is full (" + queueDepth + ")");
+        }
+
+        try {
+            try {
+                return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                // Withdraw the request; if the dispatcher already took it, the cancelled result makes it skip it
+                if (pending.result.cancel(false)) {
+                    queue.remove(pending);
+                    abandoned.increment();
+                    throw e;
+                }
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                return pending.result.get(); // completed just as we gave up
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("wardrobe.onnx.queue.depth", this, InferenceBatcher::queueDepth)
+                .description("Inference requests waiting to be batched")
+                .register(registry);
+        Gauge.builder("wardrobe.onnx.batch.average.size", this, InferenceBatcher::averageBatchSize)
+                .register(registry);
+        FunctionCounter.builder("wardrobe.onnx.batches", batches, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("wardrobe.onnx.abandoned", abandoned, LongAdder::sum)
+                .description("Inference requests whose caller timed out before they ran")
+                .register(registry);
+    }
+
+    /** Returns how many batches of each size (index = rows in batch) were dispatched. */
+    public long[] batchSizeHistogram() {
+        long[] histogram = new long[batchSizeCounts.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = batchSizeCounts.get(i);
+        }
+        return histogram;
+    }
+
+    public double averageBatchSize() {
+        long count = batches.sum();
+        return count == 0 ? 0 : (double) batchedRows.sum() / count;
+    }
+
+    private void dispatchLoop() {
+        List<PendingInference> batch = new ArrayList<>(maxBatchSize);
+        PendingInference carry = null;
+        long maxWaitNanos = TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+
+        while (running) {
+            try {
+                PendingInference first = carry != null ? carry : queue.poll(100, TimeUnit.MILLISECONDS);
+                carry = null;
+                if (first == null || first.result.isDone()) {
+                    continue; // nothing queued, or the caller has already given up
+                }
+
+                batch.add(first);
+                int rows = first.rows;
+                long deadline = System.nanoTime() + maxWaitNanos;
+
+                while (rows < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingInference next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.result.isDone()) {
+                        continue;
+                    }
+                    if (next.width != first.width || rows + next.rows > maxBatchSize) {
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                    rows += next.rows;
+                }
+
+                execute(batch, rows);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void execute(List<PendingInference> batch, int rows) {
+        int width = batch.get(0).width;
+        float[] input;
+        if (batch.size() == 1) {
+            input = batch.get(0).features;
+        } else {
+            if (batchInput.length < rows * width) {
+                batchInput = new float[rows * width];
+            }
+            input = batchInput;
+            int offset = 0;
+            for (PendingInference pending : batch) {
+                System.arraycopy(pending.features, 0, input, offset, pending.rows * width);
+                offset += pending.rows * width;
+            }
+        }
+
+        try {
+            // Sized for the model that actually runs, which a hot swap may change at any point before
+            int outWidth = onnxService.runBatch(input, rows, width, size -> {
+                if (batchOutput.length < size) {
+                    batchOutput = new float[size];
+                }
+                return batchOutput;
+            });
+            int offset = 0;
+            for (PendingInference pending : batch) {
+                float[] slice = new float[pending.rows * outWidth];
+                System.arraycopy(batchOutput, offset, slice, 0, slice.length);
+                offset += slice.length;
+                pending.result.complete(slice);
+            }
+        } catch (Exception e) {
+            log.warn("Batched inference of {} rows failed", rows, e);
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+        }
+
+        batches.increment();
+        batchedRows.add(rows);
+        batchSizeCounts.incrementAndGet(Math.min(rows, batchSizeCounts.length() - 1));
+    }
+
+    private static final class PendingInference {
+        final float[] features;
+        final int rows;
+        final int width;
+        final CompletableFuture<float[]> result = new CompletableFuture<>();
+
+        PendingInference(float[] features, int rows, int width) {
+            this.features = features;
+            this.rows = rows;
+            this.width = width;
+        }
+    }
+}
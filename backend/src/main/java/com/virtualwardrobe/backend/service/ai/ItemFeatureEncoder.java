@@ -0,0 +1,76 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Encodes a {@link WardrobeItem} into the feature layout the outfit model was trained on
+ * (see {@code create_dummy_outfit_suggester.py}): one-hot category, one-hot season, then RGB colour.
+ * <p>
+ * The vocabularies mirror the fitted {@code OneHotEncoder}s, which sort values and are case-sensitive.
+ * They include the CSV header values because the training script reads the file with {@code header=None}.
+ */
+@Component
+public class ItemFeatureEncoder {
+
+    static final List<String> CATEGORIES = List.of("bottoms", "category", "tops");
+    static final List<String> SEASONS = List.of("Summer", "Winter", "season", "summer");
+
+    public static final int FEATURES = CATEGORIES.size() + SEASONS.size() + 3;
+
+    private static final float[] DEFAULT_RGB = {0.5f, 0.5f, 0.5f};
+
+    private static final Map<String, float[]> COLOURS = Map.of(
+            "black", new float[]{0, 0, 0},
+            "white", new float[]{1, 1, 1},
+            "red", new float[]{1, 0, 0},
+            "green", new float[]{0, 1, 0},
+            "blue", new float[]{0, 0, 1},
+            "purple", new float[]{0.5f, 0, 0.5f},
+            "yellow", new float[]{1, 1, 0},
+            "orange", new float[]{1, 0.5f, 0},
+            "pink", new float[]{1, 0.75f, 0.8f}
+    );
+
+    /** Writes the encoding of {@code item} into {@code dst} starting at {@code offset}. */
+    public void encode(WardrobeItem item, float[] dst, int offset) {
+        Arrays.fill(dst, offset, offset + FEATURES, 0f);
+
+        int category = item.getCategory() == null ? -1 : CATEGORIES.indexOf(item.getCategory());
+        if (category >= 0) {
+            dst[offset + category] = 1f;
+        }
+
+        int season = item.getSeason() == null ? -1 : SEASONS.indexOf(item.getSeason());
+        if (season >= 0) {
+            dst[offset + CATEGORIES.size() + season] = 1f;
+        }
+
+        float[] rgb = item.getColour() == null
+                ? DEFAULT_RGB
+                : COLOURS.getOrDefault(item.getColour().toLowerCase(Locale.ROOT), DEFAULT_RGB);
+        System.arraycopy(rgb, 0, dst, offset + CATEGORIES.size() + SEASONS.size(), 3);
+    }
+
+    public float[] encode(WardrobeItem item) {
+        float[] features = new float[FEATURES];
+        encode(item, features, 0);
+        return features;
+    }
+
+    /** Snapshots all items and packs them into one row-major {@code [items, FEATURES]} matrix. */
+    public WardrobeFeatures encodeAll(List<ClothingItem> items) {
+        List<WardrobeItem> snapshots = items.stream().map(WardrobeItem::from).toList();
+        float[] matrix = new float[snapshots.size() * FEATURES];
+        for (int i = 0; i < snapshots.size(); i++) {
+            encode(snapshots.get(i), matrix, i * FEATURES);
+        }
+        return new WardrobeFeatures(snapshots, matrix);
+    }
+}
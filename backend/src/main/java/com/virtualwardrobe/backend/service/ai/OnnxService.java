@@ -1,103 +1,503 @@
 package com.virtualwardrobe.backend.service.ai;
 
 import ai.onnxruntime.*;
+import com.virtualwardrobe.backend.config.BulkheadFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.util.Map;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
 
+/**
+ * Owns the outfit model session.
+ * <p>
+ * The model is read from {@code onnx.model.path} through a memory-mapped buffer. Without a path it
+ * falls back to the bundled classpath model, which is read straight into a direct buffer. Either
+ * way no temp-file copy is made. {@link #reload(String, String)} loads and warms a new version in
+ * the background, then switches traffic atomically. The old session is closed once its in-flight
+ * inferences have drained. A reload may name any file inside {@code onnx.model.dir}, never one
+ * outside it.
+ */
+@Slf4j
 @Service
 public class OnnxService {
 
+    private static final String CLASSPATH_MODEL = "models/outfit_suggester.onnx";
+
+    @Value("${onnx.model.path:}") private String modelPath;
+    @Value("${onnx.model.dir:}") private String modelDir;
+    @Value("${onnx.model.warmup-rows:8}") private int warmupRows;
+    @Value("${onnx.batch.max-size:32}") private int maxRows;
+    @Value("${onnx.buffers.pool-size:4}") private int bufferPoolSize;
+    @Value("${onnx.buffers.acquire-timeout-ms:2000}") private long bufferAcquireTimeoutMs;
+
     private OrtEnvironment env;
-    private OrtSession session;
+    private final AtomicReference<LoadedModel> active = new AtomicReference<>();
+    private final AtomicBoolean fallbackLogged = new AtomicBoolean();
+    private final LinkedBlockingQueue<TensorBuffers> bufferPool = new LinkedBlockingQueue<>();
+    private final AtomicInteger buffersCreated = new AtomicInteger();
+
+    private final Timer inferenceTimer;
+    private final DistributionSummary batchRows;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "onnx-model-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OnnxService(MeterRegistry meterRegistry) {
+        this.inferenceTimer = Timer.builder("wardrobe.onnx.inference")
+                .description("Time spent in one ONNX session run")
+                .register(meterRegistry);
+        this.batchRows = DistributionSummary.builder("wardrobe.onnx.batch.rows")
+                .description("Rows per ONNX session run")
+                .register(meterRegistry);
+    }
 
     @PostConstruct
     public void init() {
+        log.info("Initializing ONNX Service...");
+        env = OrtEnvironment.getEnvironment();
         try {
-            System.out.println("Initializing ONNX Service...");
+            activate(load(modelPath, null));
+        } catch (Exception e) {
+            // Disable AI but keep app running
+            log.error("ONNX model could not be loaded, switching AI to FALLBACK MODE", e);
+        }
+    }
 
-            env = OrtEnvironment.getEnvironment();
+    @PreDestroy
+    public void cleanup() {
+        loader.shutdownNow();
+        LoadedModel model = active.getAndSet(null);
+        if (model != null) {
+            model.retire();
+        }
+        TensorBuffers buffers;
+        while ((buffers = bufferPool.poll()) != null) {
+            buffers.close();
+        }
+        try {
+            if (env != null) env.close();
+        } catch (Exception ignored) {}
+    }
 
-            // Load model from resources
-            InputStream modelStream = getClass()
-                    .getClassLoader()
-                    .getResourceAsStream("models/outfit_suggester.onnx");
+    /**
+     * Loads the model at {@code path} (the configured path when {@code null}, the bundled model when blank) in the background, warms it
+     * up and makes it the active version. Requests already running on the old version finish on it.
+     *
+     * @throws IllegalArgumentException if {@code path} is not a file inside {@code onnx.model.dir}
+     */
+    public CompletableFuture<ModelInfo> reload(String path, String version) {
+        String target = path == null ? modelPath : path.isBlank() ? "" : resolveInModelDir(path);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                LoadedModel model = load(target, version);
+                activate(model);
+                return model.info();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to load ONNX model from " + target, e);
+            }
+        }, loader);
+    }
 
-            if (modelStream == null) {
-                throw new IllegalStateException(
-                        "Model not found in resources/models/outfit_suggester.onnx"
-                );
+    /** Resolves a reload path against {@code onnx.model.dir}, following symlinks, and refuses anything outside it. */
+    private String resolveInModelDir(String path) {
+        if (modelDir == null || modelDir.isBlank()) {
+            throw new IllegalArgumentException("Model reload from a path is disabled: onnx.model.dir is not set");
+        }
+        try {
+            Path dir = Path.of(modelDir).toRealPath();
+            Path file = dir.resolve(path).normalize();
+            if (!file.startsWith(dir) || !Files.isRegularFile(file) || !file.toRealPath().startsWith(dir)) {
+                throw new IllegalArgumentException("Model path must name a file inside the model directory: " + path);
             }
+            return file.toRealPath().toString();
+        } catch (IOException | InvalidPathException e) {
+            throw new IllegalArgumentException("Model path must name a file inside the model directory: " + path, e);
+        }
+    }
 
-            // Copy to temp file (mandatory on Windows)
-            File tempFile = File.createTempFile("outfit_suggester", ".onnx");
-            tempFile.deleteOnExit();
+    /** Describes the active model, or {@code null} when running in fallback mode. */
+    public ModelInfo activeModel() {
+        LoadedModel model = active.get();
+        return model == null ? null : model.info();
+    }
 
-            try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-                modelStream.transferTo(fos);
+    /**
+     * Like {@link #runBatch(float[], int, int)}, returning every output row, but with a constant
+     * fallback prediction instead of an error while no model is loaded.
+     */
+    public float[] runModel(float[] inputData, long[] inputShape) throws Exception {
+        if (isAvailable()) {
+            try {
+                return runBatch(inputData, (int) inputShape[0], (int) inputShape[1]);
+            } catch (IllegalStateException e) {
+                if (isAvailable()) {
+                    throw e;
+                }
+                // unloaded in between; fall back
             }
+        }
+        if (fallbackLogged.compareAndSet(false, true)) {
+            log.warn("ONNX unavailable, using fallback predictions");
+        }
+        return new float[]{0.42f};
+    }
 
-            System.out.println("ONNX model copied to: " + tempFile.getAbsolutePath());
+    public boolean isAvailable() {
+        return active.get() != null;
+    }
 
-            OrtSession.SessionOptions options = new OrtSession.SessionOptions();
-            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+    /** Width of one output row of the active model, or {@code 0} when running in fallback mode. */
+    public int outputWidth() {
+        LoadedModel model = active.get();
+        return model == null ? 0 : model.outputFeatures;
+    }
 
-            try {
-                session = env.createSession(tempFile.getAbsolutePath(), options);
-            } catch (Exception ex) {
-                System.err.println("ONNX Session creation failed!");
-                ex.printStackTrace();
+    /**
+     * Runs a single inference over {@code rows} feature vectors packed row-major into
+     * {@code inputData} and returns the output rows packed the same way.
+     */
+    public float[] runBatch(float[] inputData, int rows, int features) throws Exception {
+        float[][] output = new float[1][];
+        runBatch(inputData, rows, features, size -> output[0] = new float[size]);
+        return output[0];
+    }
 
-                System.out.println("Switching AI to FALLBACK MODE.");
-                session = null;   // Prevent application crash
-                return;
+    /**
+     * Allocation-free variant of {@link #runBatch(float[], int, int)}: writes the output rows into
+     * {@code output}, which must hold at least {@code rows * outputWidth()} floats, and returns the
+     * output row width.
+     */
+    public int runBatch(float[] inputData, int rows, int features, float[] output) throws Exception {
+        return runBatch(inputData, rows, features, size -> {
+            if (output.length < size) {
+                throw new IllegalArgumentException("Output holds " + output.length + " floats, model needs " + size);
             }
+            return output;
+        });
+    }
 
-            System.out.println("ONNX model loaded successfully!");
+    /**
+     * Variant of {@link #runBatch(float[], int, int, float[])} for callers that reuse a buffer:
+     * {@code output} is asked for an array of at least the given size once the model that will run
+     * is pinned, so a concurrent model swap cannot leave the buffer too small. Returns the output
+     * row width.
+     */
+    public int runBatch(float[] inputData, int rows, int features, IntFunction<float[]> output) throws Exception {
 
-        } catch (Exception e) {
-            System.err.println("ONNX initialization failed");
-            e.printStackTrace();
-            session = null; // Disable AI but keep app running
+        LoadedModel model = acquire();
+        if (model == null) {
+            throw new IllegalStateException("ONNX session unavailable");
+        }
+
+        try {
+            run(model, inputData, rows, features, output.apply(rows * model.outputFeatures));
+            return model.outputFeatures;
+        } finally {
+            model.release();
         }
     }
 
-    @PreDestroy
-    public void cleanup() {
+    /**
+     * Copies the input into a pooled direct buffer and runs the session with tensors pinned to
+     * pooled input and output buffers. Batches larger than the pooled capacity are run in chunks.
+     */
+    private void run(LoadedModel model, float[] inputData, int rows, int features, float[] output) throws Exception {
+        if (features != model.inputFeatures) {
+            throw new IllegalArgumentException("Model " + model.version + " expects " + model.inputFeatures
+                    + " features per row, got " + features);
+        }
+
+        TensorBuffers buffers = borrowBuffers(model);
         try {
-            if (session != null) session.close();
-            if (env != null) env.close();
-        } catch (Exception ignored) {}
+            int outputFeatures = model.outputFeatures;
+            for (int start = 0; start < rows; start += maxRows) {
+                int chunk = Math.min(maxRows, rows - start);
+                buffers.input.put(0, inputData, start * features, chunk * features);
+                long started = System.nanoTime();
+                try (OrtSession.Result ignored = model.session.run(buffers.inputs(chunk), buffers.outputs(chunk))) {
+                    buffers.output.get(0, output, start * outputFeatures, chunk * outputFeatures);
+                }
+                inferenceTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                batchRows.record(chunk);
+            }
+        } finally {
+            bufferPool.offer(buffers);
+        }
     }
 
-    public float[] runModel(float[] inputData, long[] inputShape) throws Exception {
+    private TensorBuffers borrowBuffers(LoadedModel model) throws Exception {
+        TensorBuffers buffers = bufferPool.poll();
+        if (buffers == null) {
+            if (buffersCreated.incrementAndGet() <= bufferPoolSize) {
+                return new TensorBuffers(model);
+            }
+            buffersCreated.decrementAndGet();
+            buffers = bufferPool.poll(bufferAcquireTimeoutMs, TimeUnit.MILLISECONDS);
+            if (buffers == null) {
+                throw new BulkheadFullException("inference buffer"); // fail fast rather than pin the request thread
+            }
+        }
+        if (!buffers.fits(model)) {
+            // A hot-swapped model with a different signature; rebuild this slot for it
+            buffers.close();
+            buffers = new TensorBuffers(model);
+        }
+        return buffers;
+    }
 
-        if (session == null) {
-            System.out.println("ONNX unavailable → using fallback predictions");
-            return new float[]{0.42f};
+    private LoadedModel acquire() {
+        while (true) {
+            LoadedModel model = active.get();
+            if (model == null || model.retain()) {
+                return model;
+            }
+            // Lost a race with a swap; the replacement is already active
+        }
+    }
+
+    private void activate(LoadedModel model) {
+        LoadedModel previous = active.getAndSet(model);
+        fallbackLogged.set(false);
+        log.info("ONNX model {} active (loaded in {} ms from {})", model.version, model.loadMillis, model.source);
+        if (previous != null) {
+            previous.retire();
+        }
+    }
+
+    private LoadedModel load(String path, String version) throws Exception {
+        long start = System.nanoTime();
+        OrtSession session;
+        String source;
+        String digest;
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+
+            if (path == null || path.isBlank()) {
+                source = "classpath:" + CLASSPATH_MODEL;
+                ByteBuffer model = readClasspathModel();
+                digest = digest(model);
+                session = env.createSession(model, options);
+            } else {
+                Path file = Path.of(path);
+                source = file.toAbsolutePath().toString();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    MappedByteBuffer model = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    digest = digest(model);
+                    // External initializers are resolved relative to the model file, so such models
+                    // have to be opened by path; ORT maps the weights itself in that case
+                    Path externalData = file.resolveSibling(file.getFileName() + ".data");
+                    session = Files.exists(externalData)
+                            ? env.createSession(source, options)
+                            : env.createSession(model, options);
+                }
+            }
+        }
+
+        LoadedModel loaded;
+        try {
+            loaded = new LoadedModel(session, version != null ? version : digest, source);
+            warmUp(loaded);
+        } catch (Exception e) {
+            session.close();
+            throw e;
+        }
+        loaded.loadMillis = (System.nanoTime() - start) / 1_000_000;
+        return loaded;
+    }
+
+    private void warmUp(LoadedModel model) throws Exception {
+        int rows = Math.max(1, Math.min(warmupRows, maxRows));
+        run(model, new float[rows * model.inputFeatures], rows, model.inputFeatures,
+                new float[rows * model.outputFeatures]);
+    }
+
+    private ByteBuffer readClasspathModel() throws Exception {
+        try (InputStream modelStream = getClass().getClassLoader().getResourceAsStream(CLASSPATH_MODEL)) {
+            if (modelStream == null) {
+                throw new IllegalStateException("Model not found in resources/" + CLASSPATH_MODEL);
+            }
+            byte[] bytes = modelStream.readAllBytes();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            return buffer;
+        }
+    }
+
+    private static String digest(ByteBuffer model) throws Exception {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        sha.update(model.duplicate());
+        return HexFormat.of().formatHex(sha.digest(), 0, 6);
+    }
+
+    public record ModelInfo(String version, String source, Instant loadedAt, long loadMillis) {
+    }
+
+    /**
+     * A session plus a reference count. The count starts at one for the "active" reference. It is
+     * raised for every inference and dropped by {@link #retire()}, and the session closes when it
+     * reaches zero.
+     */
+    private static final class LoadedModel {
+        final OrtSession session;
+        final String version;
+        final String source;
+        final String inputName;
+        final String outputName;
+        final int inputFeatures;
+        final int outputFeatures;
+        final Instant loadedAt = Instant.now();
+        final AtomicInteger references = new AtomicInteger(1);
+        volatile long loadMillis;
+
+        LoadedModel(OrtSession session, String version, String source) throws OrtException {
+            this.session = session;
+            this.version = version;
+            this.source = source;
+            this.inputName = session.getInputNames().iterator().next();
+            this.outputName = session.getOutputNames().iterator().next();
+            this.inputFeatures = lastDimension(session.getInputInfo().get(inputName));
+            this.outputFeatures = lastDimension(session.getOutputInfo().get(outputName));
         }
 
-        String inputName = session.getInputNames().iterator().next();
+        private static int lastDimension(NodeInfo node) {
+            long[] shape = ((TensorInfo) node.getInfo()).getShape();
+            long last = shape[shape.length - 1];
+            if (last <= 0) {
+                throw new IllegalArgumentException("Model " + node.getName() + " must have a fixed feature dimension");
+            }
+            return (int) last;
+        }
 
-        FloatBuffer fb = FloatBuffer.wrap(inputData);
-        try (OnnxTensor inputTensor = OnnxTensor.createTensor(env, fb, inputShape)) {
+        boolean retain() {
+            while (true) {
+                int current = references.get();
+                if (current == 0) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                close();
+            }
+        }
 
-            Map<String, OnnxTensor> inputs = Map.of(inputName, inputTensor);
+        void retire() {
+            release();
+        }
 
-            try (OrtSession.Result results = session.run(inputs)) {
-                Object output = results.get(0).getValue();
+        ModelInfo info() {
+            return new ModelInfo(version, source, loadedAt, loadMillis);
+        }
 
-                if (output instanceof float[] arr) return arr;
-                if (output instanceof float[][] arr) return arr[0];
+        private void close() {
+            try {
+                session.close();
+                log.info("ONNX model {} closed", version);
+            } catch (OrtException e) {
+                log.warn("Failed to close ONNX model {}", version, e);
             }
         }
+    }
+
+    /**
+     * Direct input/output buffers for {@code maxRows} rows, plus one input tensor and one pinned
+     * output tensor per batch size. Each tensor is a view of the shared buffers and is created the
+     * first time that batch size is seen, then reused.
+     */
+    private final class TensorBuffers implements AutoCloseable {
+        final String inputName;
+        final String outputName;
+        final int inputFeatures;
+        final int outputFeatures;
+        final FloatBuffer input;
+        final FloatBuffer output;
+        private final List<Map<String, OnnxTensor>> inputs;
+        private final List<Map<String, OnnxTensor>> outputs;
 
-        throw new RuntimeException("Unexpected ONNX output format");
+        TensorBuffers(LoadedModel model) {
+            this.inputName = model.inputName;
+            this.outputName = model.outputName;
+            this.inputFeatures = model.inputFeatures;
+            this.outputFeatures = model.outputFeatures;
+            this.input = directFloats(maxRows * inputFeatures);
+            this.output = directFloats(maxRows * outputFeatures);
+            this.inputs = new ArrayList<>(Collections.nCopies(maxRows + 1, null));
+            this.outputs = new ArrayList<>(Collections.nCopies(maxRows + 1, null));
+        }
+
+        boolean fits(LoadedModel model) {
+            return inputName.equals(model.inputName) && outputName.equals(model.outputName)
+                    && inputFeatures == model.inputFeatures && outputFeatures == model.outputFeatures;
+        }
+
+        Map<String, OnnxTensor> inputs(int rows) throws OrtException {
+            Map<String, OnnxTensor> tensors = inputs.get(rows);
+            if (tensors == null) {
+                tensors = Map.of(inputName, OnnxTensor.createTensor(env,
+                        input.slice(0, rows * inputFeatures), new long[]{rows, inputFeatures}));
+                inputs.set(rows, tensors);
+            }
+            return tensors;
+        }
+
+        Map<String, OnnxTensor> outputs(int rows) throws OrtException {
+            Map<String, OnnxTensor> tensors = outputs.get(rows);
+            if (tensors == null) {
+                tensors = Map.of(outputName, OnnxTensor.createTensor(env,
+                        output.slice(0, rows * outputFeatures), new long[]{rows, outputFeatures}));
+                outputs.set(rows, tensors);
+            }
+            return tensors;
+        }
+
+        @Override
+        public void close() {
+            for (List<Map<String, OnnxTensor>> cache : List.of(inputs, outputs)) {
+                for (Map<String, OnnxTensor> tensors : cache) {
+                    if (tensors != null) {
+                        tensors.values().forEach(OnnxTensor::close);
+                    }
+                }
+            }
+        }
+
+        private static FloatBuffer directFloats(int size) {
+            return ByteBuffer.allocateDirect(size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
     }
 }
@@ -0,0 +1,317 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Generates cross-category outfit candidates from a wardrobe and ranks them with the outfit model.
+ * <p>
+ * Candidates are built one category at a time with a beam search over a cheap heuristic (closeness
+ * to the model's predicted top/bottom vectors plus season agreement), so the number of partial
+ * outfits never exceeds the beam width no matter how large the wardrobe is. Expansion stops early
+ * once the candidate budget or time budget is spent. All surviving candidates are then scored
+ * together in one batched model call.
+ * <p>
+ * A progressive search first reports a greedy outfit (the closest item per category), then scores
+ * the candidates best-heuristic first in chunks and reports each one that beats the best so far,
+ * so a caller can show something long before the full ranking is done.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutfitSearchEngine {
+
+    static final List<String> CATEGORIES = List.of("outerwear", "tops", "bottoms", "shoes", "accessories");
+
+    private static final int FEATURES = ItemFeatureEncoder.FEATURES;
+    private static final int SEASON_OFFSET = ItemFeatureEncoder.CATEGORIES.size();
+    private static final int SEASON_END = SEASON_OFFSET + ItemFeatureEncoder.SEASONS.size();
+
+    private final InferenceBatcher inferenceBatcher;
+
+    @Value("${suggestions.search.top-k:5}") private int defaultTopK;
+    @Value("${suggestions.search.beam-width:64}") private int beamWidth;
+    @Value("${suggestions.search.candidate-budget:20000}") private int candidateBudget;
+    @Value("${suggestions.search.time-budget-ms:50}") private long timeBudgetMs;
+    @Value("${suggestions.search.progressive-chunk:64}") private int progressiveChunk;
+
+    public List<ScoredOutfit> search(UserWardrobe userWardrobe) throws Exception {
+        return search(userWardrobe, defaultTopK);
+    }
+
+    public List<ScoredOutfit> search(UserWardrobe userWardrobe, int topK) throws Exception {
+        return search(userWardrobe, topK, null);
+    }
+
+    /** Like {@link #search(UserWardrobe, int)}, restricted to items of {@code season} when it is not null. */
+    public List<ScoredOutfit> search(UserWardrobe userWardrobe, int topK, String season) throws Exception {
+        return search(userWardrobe, topK, season, null);
+    }
+
+    /**
+     * Progressive variant: {@code onImproved}, when not null, is called on the searching thread with
+     * every outfit that outscores all outfits reported before it. The returned ranking is final.
+     */
+    public List<ScoredOutfit> search(UserWardrobe userWardrobe, int topK, String season,
+                                     Consumer<ScoredOutfit> onImproved) throws Exception {
+        WardrobeFeatures wardrobe = userWardrobe.features();
+        if (wardrobe.size() == 0 || topK <= 0) {
+            return List.of();
+        }
+
+        float[] profile = wardrobe.mean();
+        float[][] targets = categoryTargets(profile, inferenceBatcher.infer(profile, 1));
+
+        int[][] groups = new int[CATEGORIES.size()][];
+        for (int c = 0; c < CATEGORIES.size(); c++) {
+            groups[c] = userWardrobe.categoryRows(CATEGORIES.get(c));
+            if (season != null) {
+                groups[c] = intersect(groups[c], userWardrobe.seasonRows(season));
+            }
+        }
+
+        double reported = Double.NEGATIVE_INFINITY;
+        if (onImproved != null) {
+            Candidate greedy = greedy(wardrobe, groups, targets);
+            if (greedy != null) {
+                scoreWithModel(wardrobe, List.of(greedy));
+                reported = greedy.score;
+                onImproved.accept(greedy.toOutfit(wardrobe));
+            }
+        }
+
+        List<Candidate> candidates = beamSearch(wardrobe, groups, targets);
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        if (onImproved == null) {
+            scoreWithModel(wardrobe, candidates);
+        } else {
+            candidates.sort(Comparator.comparingDouble((Candidate c) -> c.heuristic).reversed());
+            int chunkSize = Math.max(1, progressiveChunk);
+            for (int from = 0; from < candidates.size(); from += chunkSize) {
+                List<Candidate> chunk = candidates.subList(from, Math.min(from + chunkSize, candidates.size()));
+                scoreWithModel(wardrobe, chunk);
+                Candidate best = Collections.max(chunk, Comparator.comparingDouble((Candidate c) -> c.score));
+                if (best.score > reported) {
+                    reported = best.score;
+                    onImproved.accept(best.toOutfit(wardrobe));
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble((Candidate c) -> c.score).reversed());
+        List<ScoredOutfit> result = new ArrayList<>(Math.min(topK, candidates.size()));
+        for (int i = 0; i < candidates.size() && result.size() < topK; i++) {
+            result.add(candidates.get(i).toOutfit(wardrobe));
+        }
+        return result;
+    }
+
+    /** Rows present in both ascending row arrays. */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int n = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                both[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, n);
+    }
+
+    /** Returns the target vector for each entry of {@link #CATEGORIES}. */
+    private static float[][] categoryTargets(float[] profile, float[] predictions) {
+        float[] top = profile;
+        float[] bottom = profile;
+        if (predictions != null && predictions.length == 2 * FEATURES) {
+            top = Arrays.copyOfRange(predictions, 0, FEATURES);
+            bottom = Arrays.copyOfRange(predictions, FEATURES, 2 * FEATURES);
+        }
+        float[][] targets = new float[CATEGORIES.size()][];
+        for (int c = 0; c < CATEGORIES.size(); c++) {
+            targets[c] = switch (CATEGORIES.get(c)) {
+                case "tops" -> top;
+                case "bottoms" -> bottom;
+                default -> profile;
+            };
+        }
+        return targets;
+    }
+
+    private List<Candidate> beamSearch(WardrobeFeatures wardrobe, int[][] groups, float[][] targets) {
+        float[] matrix = wardrobe.matrix();
+        long deadline = System.nanoTime() + timeBudgetMs * 1_000_000L;
+        int expansions = 0;
+
+        List<Candidate> beam = new ArrayList<>();
+        beam.add(new Candidate(new int[0], 0));
+
+        for (int c = 0; c < groups.length; c++) {
+            int[] group = groups[c];
+            if (group.length == 0) {
+                continue;
+            }
+
+            boolean cutOff = expansions >= candidateBudget || System.nanoTime() > deadline;
+            if (cutOff) {
+                // Out of budget: finish every partial outfit with the best item for this category
+                int best = bestRow(wardrobe, group, targets[c]);
+                float unary = wardrobe.cosine(best, targets[c]);
+                List<Candidate> completed = new ArrayList<>(beam.size());
+                for (Candidate partial : beam) {
+                    completed.add(partial.extend(best, partial.heuristic + unary + seasonAgreement(matrix, partial.rows, best)));
+                }
+                beam = completed;
+                continue;
+            }
+
+            PriorityQueue<Candidate> next = new PriorityQueue<>(beamWidth + 1,
+                    Comparator.comparingDouble((Candidate candidate) -> candidate.heuristic));
+            float[] unary = new float[group.length];
+            for (int g = 0; g < group.length; g++) {
+                unary[g] = wardrobe.cosine(group[g], targets[c]);
+            }
+
+            for (Candidate partial : beam) {
+                for (int g = 0; g < group.length; g++) {
+                    float heuristic = partial.heuristic + unary[g] + seasonAgreement(matrix, partial.rows, group[g]);
+                    if (next.size() < beamWidth) {
+                        next.add(partial.extend(group[g], heuristic));
+                    } else if (heuristic > next.peek().heuristic) {
+                        next.poll();
+                        next.add(partial.extend(group[g], heuristic));
+                    }
+                    expansions++;
+                }
+                if (expansions >= candidateBudget || System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            beam = new ArrayList<>(next);
+        }
+
+        return beam.get(0).rows.length == 0 ? List.of() : beam;
+    }
+
+    /** The closest item to the target of every non-empty category, or null if all are empty. */
+    private static Candidate greedy(WardrobeFeatures wardrobe, int[][] groups, float[][] targets) {
+        float[] matrix = wardrobe.matrix();
+        Candidate outfit = new Candidate(new int[0], 0);
+        for (int c = 0; c < groups.length; c++) {
+            if (groups[c].length == 0) {
+                continue;
+            }
+            int best = bestRow(wardrobe, groups[c], targets[c]);
+            outfit = outfit.extend(best, outfit.heuristic + wardrobe.cosine(best, targets[c])
+                    + seasonAgreement(matrix, outfit.rows, best));
+        }
+        return outfit.rows.length == 0 ? null : outfit;
+    }
+
+    private static int bestRow(WardrobeFeatures wardrobe, int[] group, float[] target) {
+        int best = group[0];
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int row : group) {
+            float score = wardrobe.cosine(row, target);
+            if (score > bestScore) {
+                bestScore = score;
+                best = row;
+            }
+        }
+        return best;
+    }
+
+    /** Fraction of already chosen items that share a season with {@code row}. */
+    private static float seasonAgreement(float[] matrix, int[] rows, int row) {
+        if (rows.length == 0) {
+            return 0;
+        }
+        float agreement = 0;
+        for (int chosen : rows) {
+            for (int f = SEASON_OFFSET; f < SEASON_END; f++) {
+                agreement += matrix[chosen * FEATURES + f] * matrix[row * FEATURES + f];
+            }
+        }
+        return agreement / rows.length;
+    }
+
+    /**
+     * Scores all candidates in a single model call. Each candidate's mean vector goes through the
+     * model, and the score is how well its own top and bottom match the predicted ones. The
+     * heuristic breaks ties and is the only signal when the model is unavailable.
+     */
+    private void scoreWithModel(WardrobeFeatures wardrobe, List<Candidate> candidates) throws Exception {
+        float[] matrix = wardrobe.matrix();
+        float[] input = new float[candidates.size() * FEATURES];
+        for (int i = 0; i < candidates.size(); i++) {
+            int[] rows = candidates.get(i).rows;
+            for (int row : rows) {
+                for (int f = 0; f < FEATURES; f++) {
+                    input[i * FEATURES + f] += matrix[row * FEATURES + f] / rows.length;
+                }
+            }
+        }
+
+        float[] output = inferenceBatcher.infer(input, candidates.size());
+        boolean modelScores = output != null && output.length == candidates.size() * 2 * FEATURES;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            candidate.score = candidate.heuristic * 0.1;
+            if (!modelScores) {
+                continue;
+            }
+            float[] top = Arrays.copyOfRange(output, i * 2 * FEATURES, i * 2 * FEATURES + FEATURES);
+            float[] bottom = Arrays.copyOfRange(output, i * 2 * FEATURES + FEATURES, (i + 1) * 2 * FEATURES);
+            for (int row : candidate.rows) {
+                String category = wardrobe.items().get(row).getCategory();
+                if ("tops".equals(category)) {
+                    candidate.score += wardrobe.cosine(row, top);
+                } else if ("bottoms".equals(category)) {
+                    candidate.score += wardrobe.cosine(row, bottom);
+                }
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final int[] rows;
+        final float heuristic;
+        double score;
+
+        Candidate(int[] rows, float heuristic) {
+            this.rows = rows;
+            this.heuristic = heuristic;
+        }
+
+        Candidate extend(int row, float heuristic) {
+            int[] next = Arrays.copyOf(rows, rows.length + 1);
+            next[rows.length] = row;
+            return new Candidate(next, heuristic);
+        }
+
+        ScoredOutfit toOutfit(WardrobeFeatures wardrobe) {
+            List<WardrobeItem> items = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                items.add(wardrobe.items().get(row));
+            }
+            return new ScoredOutfit(items, score);
+        }
+    }
+
+    public record ScoredOutfit(List<WardrobeItem> items, double score) {
+    }
+}
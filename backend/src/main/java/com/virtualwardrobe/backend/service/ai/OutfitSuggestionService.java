@@ -1,59 +1,113 @@
 package com.virtualwardrobe.backend.service.ai;
 
-import com.virtualwardrobe.backend.model.ClothingItem;
-import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.config.BulkheadFullException;
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import com.virtualwardrobe.backend.service.WardrobeVersionService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OutfitSuggestionService {
 
+    private final OutfitSearchEngine outfitSearchEngine;
+    private final WardrobeIndex wardrobeIndex;
+    private final WardrobeVersionService wardrobeVersionService;
+    private final SuggestionCache suggestionCache;
     private final OnnxService onnxService;
-    private final ClothingItemRepository clothingItemRepository;
 
-    public List<ClothingItem> suggestOutfit(UUID userId) {
-        try {
-            float[] input = new float[]{0.3f, 0.7f, 0.2f, 0.9f};
-            long[] shape = new long[]{1, input.length};
-
-            float[] predictions = onnxService.runModel(input, shape);
-
-            System.out.println("AI predictions: " + Arrays.toString(predictions));
-
-            if (predictions == null || predictions.length == 0) {
-                predictions = new float[]{0.1f};
-            }
-
-            List<ClothingItem> allItems = clothingItemRepository.findAllByUserId(userId);
+    public List<WardrobeItem> suggestOutfit(UUID userId) {
+        return suggestOutfit(userId, null);
+    }
 
-            Map<String, List<ClothingItem>> categorized = new HashMap<>();
-            allItems.forEach(item ->
-                    categorized.computeIfAbsent(item.getCategory(), k -> new ArrayList<>()).add(item)
-            );
+    public List<WardrobeItem> suggestOutfit(UUID userId, String season) {
+        List<OutfitSearchEngine.ScoredOutfit> outfits = suggestOutfits(userId, 1, season);
+        return outfits.isEmpty() ? Collections.emptyList() : outfits.get(0).items();
+    }
 
-            List<String> categories = List.of("outerwear", "tops", "bottoms", "shoes", "accessories");
+    public List<OutfitSearchEngine.ScoredOutfit> suggestOutfits(UUID userId, int topK) {
+        return suggestOutfits(userId, topK, null);
+    }
 
-            List<ClothingItem> outfit = new ArrayList<>();
+    /**
+     * Top {@code topK} outfits, optionally restricted to one season. Results are memoized per
+     * wardrobe version, so repeat requests for an unchanged wardrobe skip the search entirely.
+     */
+    public List<OutfitSearchEngine.ScoredOutfit> suggestOutfits(UUID userId, int topK, String season) {
+        try {
+            return suggest(userId, topK, season, null);
+        } catch (BulkheadFullException | RejectedExecutionException e) {
+            throw e; // overloaded (bulkhead or inference queue): surface as 503 rather than an empty suggestion
+        } catch (Exception e) {
+            log.warn("Outfit suggestion failed for user {}", userId, e);
+            return Collections.emptyList();
+        }
+    }
 
-            Random random = new Random(
-                    (long) (predictions[0] * 10000)
-            );
+    /**
+     * Like {@link #suggestOutfits(UUID, int, String)}, additionally reporting each outfit that
+     * improves on the previous ones as soon as it is scored. A cached result is reported at once.
+     * Failures propagate to the caller.
+     */
+    public List<OutfitSearchEngine.ScoredOutfit> suggestProgressively(UUID userId, int topK, String season,
+                                                                      Consumer<OutfitSearchEngine.ScoredOutfit> onImproved)
+            throws Exception {
+        return suggest(userId, topK, season, onImproved);
+    }
 
-            for (String category : categories) {
-                List<ClothingItem> group = categorized.getOrDefault(category, List.of());
-                if (!group.isEmpty()) {
-                    outfit.add(group.get(random.nextInt(group.size())));
-                }
+    private List<OutfitSearchEngine.ScoredOutfit> suggest(UUID userId, int topK, String season,
+                                                          Consumer<OutfitSearchEngine.ScoredOutfit> onImproved)
+            throws Exception {
+        String normalizedSeason = season == null || season.isBlank() ? null : season.toLowerCase(Locale.ROOT);
+        // Read before the wardrobe, so a result is never filed under a newer version than it saw
+        long version = wardrobeVersionService.current(userId);
+        String context = context(topK, normalizedSeason);
+
+        List<OutfitSearchEngine.ScoredOutfit> cached = suggestionCache.cached(userId, version, context);
+        if (cached == null) {
+            UserWardrobe wardrobe = wardrobeIndex.get(userId);
+            cached = suggestionCache.load(wardrobe, version, context);
+            if (cached == null) {
+                List<OutfitSearchEngine.ScoredOutfit> outfits =
+                        outfitSearchEngine.search(wardrobe, topK, normalizedSeason, onImproved);
+                suggestionCache.put(userId, version, context, outfits);
+                return outfits;
             }
+        }
+        if (onImproved != null && !cached.isEmpty()) {
+            onImproved.accept(cached.get(0));
+        }
+        return cached;
+    }
 
-            return outfit;
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return Collections.emptyList();
+    /**
+     * Computes and stores the suggestions for one user without caching anything in memory, for the
+     * nightly pre-computation. Unlike {@link #suggestOutfits} failures propagate to the caller.
+     * Returns false if the result could not be queued for storage in time.
+     */
+    public boolean precompute(UUID userId, int topK, long storeTimeoutMs) throws Exception {
+        long version = wardrobeVersionService.current(userId);
+        String context = context(topK, null);
+        if (suggestionCache.cached(userId, version, context) != null) {
+            return true;
         }
+        List<OutfitSearchEngine.ScoredOutfit> outfits = outfitSearchEngine.search(wardrobeIndex.peek(userId), topK);
+        return suggestionCache.persist(userId, version, context, outfits, storeTimeoutMs);
+    }
+
+    /** Everything besides the wardrobe that changes the result; a model reload starts a fresh key space. */
+    private String context(int topK, String season) {
+        OnnxService.ModelInfo model = onnxService.activeModel();
+        return "model=" + (model == null ? "none" : model.version())
+                + ";season=" + (season == null ? "any" : season)
+                + ";k=" + topK;
     }
 }
@@ -0,0 +1,332 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeChangedEvent;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier memo of outfit suggestions keyed by (user, wardrobe version, context).
+ * <p>
+ * The first tier is an in-memory LRU over users, capped at {@code suggestions.cache.max-users}, each
+ * holding the results for its current wardrobe version only. The second tier is the
+ * {@code outfits_suggestions} / {@code suggested_outfit} tables, so results survive restarts and
+ * are shared between instances. New results are queued and written by a single background thread
+ * in batches; a full queue drops the write rather than slowing the request, and a batch the
+ * database rejects is logged and counted, not retried, since the next request recomputes it. A
+ * {@link WardrobeChangedEvent} drops the user's in-memory entries, and the next write for that
+ * user deletes its rows for older versions.
+ */
+@Slf4j
+@Component
+public class SuggestionCache implements MeterBinder {
+
+    private static final String FIND_SQL = """
+            SELECT o.outfit_rank, o.score, o.clothing_items_id
+            FROM outfits_suggestions s
+            LEFT JOIN suggested_outfit o ON o.ai_suggestion_id = s.id
+            WHERE s.user_id = ? AND s.wardrobe_version = ? AND s.context = ?
+            ORDER BY o.outfit_rank, o.item_position
+            """;
+
+    private static final String DELETE_OLDER_SQL =
+            "DELETE FROM outfits_suggestions WHERE user_id = ? AND wardrobe_version < ?";
+
+    // Ids are fresh, so the only possible conflict is on (user_id, wardrobe_version, context)
+    private static final String INSERT_SUGGESTION_SQL = """
+            INSERT INTO outfits_suggestions (id, user_id, wardrobe_version, context) VALUES (?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    // Skips rows whose header lost an ON CONFLICT race or whose item was deleted meanwhile
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO suggested_outfit (ai_suggestion_id, clothing_items_id, type, outfit_rank, item_position, score)
+            SELECT s.id, c.id, ?, ?, ?, ?
+            FROM outfits_suggestions s JOIN clothing_items c ON c.id = ?
+            WHERE s.id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${suggestions.cache.max-users:10000}") private int maxUsers;
+    @Value("${suggestions.cache.max-contexts-per-user:16}") private int maxContextsPerUser;
+    @Value("${suggestions.cache.write-queue:4096}") private int writeQueueDepth;
+    @Value("${suggestions.cache.write-batch:256}") private int writeBatch;
+    @Value("${suggestions.cache.write-interval-ms:500}") private long writeIntervalMs;
+
+    private final LinkedHashMap<UUID, UserEntries> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private BlockingQueue<PendingWrite> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SuggestionCache(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(writeQueueDepth);
+        running = true;
+        writer = new Thread(this::writeLoop, "suggestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5)); // lets the last batch finish
+    }
+
+    /** In-memory lookup only; returns null on a miss. */
+    public List<OutfitSearchEngine.ScoredOutfit> cached(UUID userId, long version, String context) {
+        UserEntries user;
+        synchronized (entries) {
+            user = entries.get(userId);
+        }
+        List<OutfitSearchEngine.ScoredOutfit> outfits = user == null || user.version != version
+                ? null
+                : user.results.get(context);
+        if (outfits != null) {
+            hits.increment();
+        }
+        return outfits;
+    }
+
+    /**
+     * Looks the result up in the database and promotes it to memory. Returns null when it was
+     * never stored or refers to items that are no longer in {@code wardrobe}.
+     */
+    public List<OutfitSearchEngine.ScoredOutfit> load(UserWardrobe wardrobe, long version, String context) {
+        Map<UUID, WardrobeItem> itemsById = new HashMap<>(wardrobe.size() * 2);
+        for (WardrobeItem item : wardrobe.items()) {
+            itemsById.put(item.getId(), item);
+        }
+
+        List<StoredRow> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredRow(rs.getInt(1), rs.getDouble(2), rs.getObject(3, UUID.class)),
+                wardrobe.userId(), version, context);
+        if (rows.isEmpty()) {
+            misses.increment();
+            return null;
+        }
+
+        List<OutfitSearchEngine.ScoredOutfit> outfits = new ArrayList<>();
+        List<WardrobeItem> items = null;
+        int rank = -1;
+        double score = 0;
+        for (StoredRow row : rows) {
+            if (row.itemId == null) {
+                continue; // a stored empty result
+            }
+            WardrobeItem item = itemsById.get(row.itemId);
+            if (item == null) {
+                misses.increment();
+                return null;
+            }
+            if (row.rank != rank) {
+                if (items != null) {
+                    outfits.add(new OutfitSearchEngine.ScoredOutfit(List.copyOf(items), score));
+                }
+                items = new ArrayList<>();
+                rank = row.rank;
+                score = row.score;
+            }
+            items.add(item);
+        }
+        if (items != null) {
+            outfits.add(new OutfitSearchEngine.ScoredOutfit(List.copyOf(items), score));
+        }
+
+        storeHits.increment();
+        remember(wardrobe.userId(), version, context, List.copyOf(outfits));
+        return outfits;
+    }
+
+    /** Remembers a freshly computed result and queues it for the database. */
+    public void put(UUID userId, long version, String context, List<OutfitSearchEngine.ScoredOutfit> outfits) {
+        List<OutfitSearchEngine.ScoredOutfit> frozen = List.copyOf(outfits);
+        remember(userId, version, context, frozen);
+        if (!queue.offer(new PendingWrite(userId, version, context, frozen))) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Queues a result for the database without touching memory, waiting up to {@code timeoutMs}
+     * for room in the write queue. Returns false if the queue stayed full.
+     */
+    public boolean persist(UUID userId, long version, String context, List<OutfitSearchEngine.ScoredOutfit> outfits,
+                           long timeoutMs) throws InterruptedException {
+        return queue.offer(new PendingWrite(userId, version, context, List.copyOf(outfits)),
+                timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onWardrobeChanged(WardrobeChangedEvent event) {
+        synchronized (entries) {
+            entries.remove(event.userId());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("wardrobe.suggestions.cache.hits", hits, LongAdder::sum)
+                .tag("tier", "memory")
+                .register(registry);
+        FunctionCounter.builder("wardrobe.suggestions.cache.hits", storeHits, LongAdder::sum)
+                .tag("tier", "database")
+                .register(registry);
+        FunctionCounter.builder("wardrobe.suggestions.cache.misses", misses, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("wardrobe.suggestions.cache.writes", written, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("wardrobe.suggestions.cache.writes.dropped", dropped, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("wardrobe.suggestions.cache.writes.failed", failed, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("wardrobe.suggestions.cache.write.queue", this, cache -> cache.queue.size())
+                .register(registry);
+        Gauge.builder("wardrobe.suggestions.cache.users", this, SuggestionCache::size)
+                .register(registry);
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void remember(UUID userId, long version, String context, List<OutfitSearchEngine.ScoredOutfit> outfits) {
+        synchronized (entries) {
+            UserEntries user = entries.get(userId);
+            if (user != null && user.version > version) {
+                return; // computed against a wardrobe that has changed since
+            }
+            if (user == null || user.version < version) {
+                user = new UserEntries(version);
+                entries.put(userId, user);
+                Iterator<UUID> eldest = entries.keySet().iterator();
+                while (entries.size() > maxUsers && eldest.hasNext()) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            if (user.results.size() >= maxContextsPerUser && !user.results.containsKey(context)) {
+                user.results.clear();
+            }
+            user.results.put(context, outfits);
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(writeBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeIntervalMs);
+                while (running && batch.size() < writeBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, writeBatch - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                failed.add(batch.size());
+                log.warn("Failed to persist {} suggestion results", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        // Only the newest version per user is worth keeping
+        Map<UUID, Long> newest = new HashMap<>();
+        for (PendingWrite pending : batch) {
+            newest.merge(pending.userId, pending.version, Math::max);
+        }
+
+        List<Object[]> deletes = new ArrayList<>(newest.size());
+        newest.forEach((userId, version) -> deletes.add(new Object[]{userId, version}));
+        List<Object[]> headers = new ArrayList<>(batch.size());
+        List<Object[]> items = new ArrayList<>();
+        for (PendingWrite pending : batch) {
+            if (pending.version != newest.get(pending.userId)) {
+                continue;
+            }
+            UUID id = UUID.randomUUID();
+            headers.add(new Object[]{id, pending.userId, pending.version, pending.context});
+            for (int rank = 0; rank < pending.outfits.size(); rank++) {
+                OutfitSearchEngine.ScoredOutfit outfit = pending.outfits.get(rank);
+                for (int position = 0; position < outfit.items().size(); position++) {
+                    WardrobeItem item = outfit.items().get(position);
+                    String type = item.getCategory() == null ? "item" : item.getCategory();
+                    items.add(new Object[]{type, rank, position, outfit.score(), item.getId(), id});
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(DELETE_OLDER_SQL, deletes);
+            jdbcTemplate.batchUpdate(INSERT_SUGGESTION_SQL, headers);
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+        });
+        written.add(headers.size());
+    }
+
+    private static final class UserEntries {
+        final long version;
+        final Map<String, List<OutfitSearchEngine.ScoredOutfit>> results = new ConcurrentHashMap<>();
+
+        UserEntries(long version) {
+            this.version = version;
+        }
+    }
+
+    private record StoredRow(int rank, double score, UUID itemId) {
+    }
+
+    private record PendingWrite(UUID userId, long version, String context,
+                                List<OutfitSearchEngine.ScoredOutfit> outfits) {
+    }
+}
@@ -0,0 +1,328 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.Bulkhead;
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nightly pre-computation of every user's default suggestions into the {@link SuggestionCache}
+ * tables, so the first request of the day is a database hit instead of a search.
+ * <p>
+ * Users are walked in id order, one page at a time, on {@code suggestions.precompute.parallelism}
+ * worker threads; concurrent searches are coalesced into batched model calls by the
+ * {@link InferenceBatcher}. Progress is checkpointed in {@code suggestion_runs} after each page
+ * under a lease, so a run interrupted by a crash or redeploy resumes after the last finished page
+ * once the lease expires, and only one instance works on a given day's run. Workers pace
+ * themselves to {@code suggestions.precompute.max-users-per-second} and back off while the
+ * database bulkhead is more than {@code suggestions.precompute.max-db-share} in use, leaving the
+ * remaining connections to live traffic.
+ */
+@Slf4j
+@Component
+public class SuggestionPrecomputeJob {
+
+    // A claim is the insert of a new run or the takeover of an expired lease; each is one atomic
+    // statement, so of two instances racing for the same day at most one sees an update count of 1
+    private static final String CREATE_SQL = """
+            INSERT INTO suggestion_runs (run_date, status, locked_until) VALUES (?, 'running', ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String TAKE_OVER_SQL = """
+            UPDATE suggestion_runs SET locked_until = ?
+            WHERE run_date = ? AND status = 'running' AND locked_until < now()
+            """;
+
+    private static final String PROGRESS_SQL = """
+            SELECT last_user_id, users_processed, users_failed, active_millis
+            FROM suggestion_runs WHERE run_date = ?
+            """;
+
+    private static final String CHECKPOINT_SQL = """
+            UPDATE suggestion_runs
+            SET last_user_id = ?, users_processed = ?, users_failed = ?, active_millis = ?, users_per_second = ?,
+                locked_until = ?
+            WHERE run_date = ?
+            """;
+
+    private static final String FINISH_SQL = """
+            UPDATE suggestion_runs
+            SET status = 'completed', finished_at = now(), users_processed = ?, users_failed = ?,
+                active_millis = ?, users_per_second = ?
+            WHERE run_date = ?
+            """;
+
+    private static final String UNFINISHED_SQL =
+            "SELECT count(*) FROM suggestion_runs WHERE run_date = ? AND status = 'running'";
+
+    private static final String LATEST_SQL = """
+            SELECT run_date, status, started_at, finished_at, users_processed, users_failed, users_per_second
+            FROM suggestion_runs ORDER BY run_date DESC LIMIT 1
+            """;
+
+    private final OutfitSuggestionService outfitSuggestionService;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Bulkhead database;
+    private final Counter usersCounter;
+    private final AtomicLong lastUsersPerSecond = new AtomicLong();
+
+    @Value("${suggestions.precompute.enabled:true}") private boolean enabled;
+    @Value("${suggestions.precompute.zone:UTC}") private String zone;
+    @Value("${suggestions.precompute.page-size:500}") private int pageSize;
+    @Value("${suggestions.precompute.parallelism:4}") private int parallelism;
+    @Value("${suggestions.precompute.sizes:1,5}") private int[] sizes;
+    @Value("${suggestions.precompute.max-users-per-second:200}") private double maxUsersPerSecond;
+    @Value("${suggestions.precompute.max-db-share:0.5}") private double maxDbShare;
+    @Value("${suggestions.precompute.lease-ms:300000}") private long leaseMs;
+    @Value("${suggestions.precompute.store-timeout-ms:30000}") private long storeTimeoutMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService launcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggestion-precompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean stopping;
+
+    public SuggestionPrecomputeJob(OutfitSuggestionService outfitSuggestionService,
+                                   UserRepository userRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   Bulkheads bulkheads,
+                                   MeterRegistry meterRegistry) {
+        this.outfitSuggestionService = outfitSuggestionService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.database = bulkheads.database();
+        this.usersCounter = meterRegistry.counter("wardrobe.suggestions.precompute.users");
+        meterRegistry.gauge("wardrobe.suggestions.precompute.users.per.second", lastUsersPerSecond,
+                value -> Double.longBitsToDouble(value.get()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopping = true; // the current page finishes and is checkpointed; the next start resumes after it
+        launcher.shutdown();
+    }
+
+    @Scheduled(cron = "${suggestions.precompute.cron:0 0 4 * * *}", zone = "${suggestions.precompute.zone:UTC}")
+    public void scheduled() {
+        if (enabled) {
+            trigger();
+        }
+    }
+
+    /**
+     * Picks up today's run if the instance working on it died; the claim only succeeds once that
+     * instance's lease has expired.
+     */
+    @Scheduled(initialDelayString = "${suggestions.precompute.resume-check-ms:300000}",
+               fixedDelayString = "${suggestions.precompute.resume-check-ms:300000}")
+    public void resumeInterrupted() {
+        if (!enabled) {
+            return;
+        }
+        Long unfinished = jdbcTemplate.queryForObject(UNFINISHED_SQL, Long.class, today());
+        if (unfinished != null && unfinished > 0) {
+            trigger();
+        }
+    }
+
+    /** Starts today's run in the background; completes with null if it was already done or is running elsewhere. */
+    public CompletableFuture<RunReport> trigger() {
+        return CompletableFuture.supplyAsync(() -> run(today()), launcher);
+    }
+
+    public RunReport latest() {
+        List<RunReport> runs = jdbcTemplate.query(LATEST_SQL, (rs, rowNum) -> new RunReport(
+                rs.getObject("run_date", LocalDate.class),
+                rs.getString("status"),
+                rs.getTimestamp("started_at").toInstant(),
+                rs.getTimestamp("finished_at") == null ? null : rs.getTimestamp("finished_at").toInstant(),
+                rs.getLong("users_processed"),
+                rs.getLong("users_failed"),
+                rs.getDouble("users_per_second")));
+        return runs.isEmpty() ? null : runs.get(0);
+    }
+
+    RunReport run(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            Progress claimed = claim(runDate);
+            if (claimed == null) {
+                return null; // completed, or another instance holds the lease
+            }
+            return execute(runDate, claimed);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Progress claim(LocalDate runDate) {
+        if (jdbcTemplate.update(CREATE_SQL, runDate, leaseUntil()) == 1) {
+            return new Progress(null, 0, 0, 0);
+        }
+        if (jdbcTemplate.update(TAKE_OVER_SQL, leaseUntil(), runDate) == 0) {
+            return null;
+        }
+        return jdbcTemplate.queryForObject(PROGRESS_SQL,
+                (rs, rowNum) -> new Progress(rs.getObject(1, UUID.class), rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                runDate);
+    }
+
+    private RunReport execute(LocalDate runDate, Progress progress) {
+        Instant started = Instant.now();
+        log.info("Suggestion pre-computation for {} {} ({} users done)", runDate,
+                progress.lastUserId == null ? "starting" : "resuming after " + progress.lastUserId, progress.processed);
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(pageSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "suggestion-precompute-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        Pacer pacer = new Pacer(maxUsersPerSecond);
+
+        UUID after = progress.lastUserId == null ? new UUID(0, 0) : progress.lastUserId;
+        long processed = progress.processed;
+        long failed = progress.failed;
+        long activeMillis = progress.activeMillis;
+        long segmentStart = System.currentTimeMillis();
+        try {
+            List<UUID> page;
+            while (!stopping && !(page = userRepository.findIdsAfter(after, Limit.of(pageSize))).isEmpty()) {
+                List<Callable<Boolean>> tasks = new ArrayList<>(page.size());
+                for (UUID userId : page) {
+                    tasks.add(() -> precompute(userId, pacer));
+                }
+                for (Future<Boolean> result : workers.invokeAll(tasks)) {
+                    if (result.get()) {
+                        processed++;
+                    } else {
+                        failed++;
+                    }
+                }
+                usersCounter.increment(page.size());
+                after = page.get(page.size() - 1);
+
+                long now = System.currentTimeMillis();
+                activeMillis += now - segmentStart;
+                segmentStart = now;
+                jdbcTemplate.update(CHECKPOINT_SQL, after, processed, failed, activeMillis,
+                        usersPerSecond(processed + failed, activeMillis), leaseUntil(), runDate);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause()); // precompute() catches everything; not expected
+        } finally {
+            workers.shutdownNow();
+        }
+        if (stopping) {
+            return null;
+        }
+
+        double usersPerSecond = usersPerSecond(processed + failed, activeMillis);
+        lastUsersPerSecond.set(Double.doubleToLongBits(usersPerSecond));
+        jdbcTemplate.update(FINISH_SQL, processed, failed, activeMillis, usersPerSecond, runDate);
+
+        log.info("Suggestion pre-computation for {} finished: {} users, {} failed, {} users/s ({} s this session)",
+                runDate, processed, failed, String.format("%.1f", usersPerSecond),
+                (System.currentTimeMillis() - started.toEpochMilli()) / 1000);
+        return new RunReport(runDate, "completed", started, Instant.now(), processed, failed, usersPerSecond);
+    }
+
+    private boolean precompute(UUID userId, Pacer pacer) {
+        try {
+            pacer.await();
+            awaitDatabaseHeadroom();
+            for (int size : sizes) {
+                if (!outfitSuggestionService.precompute(userId, size, storeTimeoutMs)) {
+                    log.warn("Suggestion write queue stayed full; skipped user {}", userId);
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.debug("Suggestion pre-computation failed for user {}", userId, e);
+            return false;
+        }
+    }
+
+    private static double usersPerSecond(long users, long activeMillis) {
+        return activeMillis == 0 ? 0 : users * 1000.0 / activeMillis;
+    }
+
+    private void awaitDatabaseHeadroom() throws InterruptedException {
+        int limit = Math.max(1, (int) (database.permits() * maxDbShare));
+        while (database.inUse() >= limit) {
+            Thread.sleep(20);
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(ZoneId.of(zone));
+    }
+
+    private Timestamp leaseUntil() {
+        return Timestamp.from(Instant.now().plusMillis(leaseMs));
+    }
+
+    public record RunReport(LocalDate runDate, String status, Instant startedAt, Instant finishedAt,
+                            long usersProcessed, long usersFailed, double usersPerSecond) {
+    }
+
+    private record Progress(UUID lastUserId, long processed, long failed, long activeMillis) {
+    }
+
+    /** Hands out evenly spaced start slots so the workers together stay under a target rate. */
+    private static final class Pacer {
+        private final long intervalNanos;
+        private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+        Pacer(double perSecond) {
+            this.intervalNanos = perSecond <= 0 ? 0 : (long) (1_000_000_000L / perSecond);
+        }
+
+        void await() throws InterruptedException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long slot = nextSlot.getAndUpdate(next -> Math.max(next, System.nanoTime()) + intervalNanos);
+            long wait = slot - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+    }
+}
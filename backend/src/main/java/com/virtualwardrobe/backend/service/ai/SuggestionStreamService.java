@@ -0,0 +1,111 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.BulkheadFullException;
+import com.virtualwardrobe.backend.dto.OutfitSuggestionResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams outfit suggestions as Server-Sent Events while the search runs.
+ * <p>
+ * Every {@code outfit} event carries an outfit that outscores all earlier ones, the first usually
+ * being the greedy pick that is ready after a single model call. A final {@code done} event
+ * carries the complete ranking, and an {@code error} event replaces it if the search fails.
+ * Searches run on a small bounded pool; when it is saturated the request is rejected up front
+ * instead of holding a connection open. A client that disconnects stops its search at the next
+ * improvement.
+ */
+@Slf4j
+@Service
+public class SuggestionStreamService {
+
+    private final OutfitSuggestionService outfitSuggestionService;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    public SuggestionStreamService(OutfitSuggestionService outfitSuggestionService,
+                                   @Value("${suggestions.stream.threads:8}") int threads,
+                                   @Value("${suggestions.stream.queue-capacity:64}") int queueCapacity,
+                                   @Value("${suggestions.stream.timeout-ms:30000}") long timeoutMs,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outfitSuggestionService = outfitSuggestionService;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("suggestion-stream-", 1).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "suggestion-stream-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a search and returns the emitter its events are sent to.
+     *
+     * @throws RejectedExecutionException when the stream pool and its queue are full
+     */
+    public SseEmitter stream(UUID userId, int topK, String season) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Future<?> search = executor.submit(() -> run(emitter, userId, topK, season));
+        emitter.onTimeout(() -> search.cancel(true));
+        emitter.onError(e -> search.cancel(true));
+        return emitter;
+    }
+
+    private void run(SseEmitter emitter, UUID userId, int topK, String season) {
+        try {
+            AtomicInteger sent = new AtomicInteger();
+            List<OutfitSearchEngine.ScoredOutfit> ranking = outfitSuggestionService.suggestProgressively(
+                    userId, topK, season, outfit -> send(emitter, SseEmitter.event()
+                            .name("outfit")
+                            .id(Integer.toString(sent.incrementAndGet()))
+                            .data(OutfitSuggestionResponse.from(outfit), MediaType.APPLICATION_JSON)));
+            send(emitter, SseEmitter.event()
+                    .name("done")
+                    .data(ranking.stream().map(OutfitSuggestionResponse::from).toList(), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e.getCause()); // client went away
+        } catch (Exception e) {
+            if (!(e instanceof BulkheadFullException)) {
+                log.warn("Streaming outfit suggestion failed for user {}", userId, e);
+            }
+            String message = e instanceof BulkheadFullException ? "Suggestions are busy, try again shortly"
+                    : "Suggestion failed";
+            try {
+                emitter.send(SseEmitter.event().name("error").data(Map.of("error", message), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ignored) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
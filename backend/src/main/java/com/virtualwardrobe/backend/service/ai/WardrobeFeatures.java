@@ -0,0 +1,117 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.service.WardrobeItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of a user's wardrobe with every item encoded once into a packed,
+ * row-major {@code [items, ItemFeatureEncoder.FEATURES]} matrix. Row {@code i} belongs to
+ * {@code items().get(i)}.
+ */
+public final class WardrobeFeatures {
+
+    public static final WardrobeFeatures EMPTY = new WardrobeFeatures(List.of(), new float[0]);
+
+    private final List<WardrobeItem> items;
+    private final float[] matrix;
+
+    public WardrobeFeatures(List<WardrobeItem> items, float[] matrix) {
+        this.items = items;
+        this.matrix = matrix;
+    }
+
+    public List<WardrobeItem> items() {
+        return items;
+    }
+
+    /** The packed matrix; callers must treat it as read-only. */
+    public float[] matrix() {
+        return matrix;
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public int offset(int row) {
+        return row * ItemFeatureEncoder.FEATURES;
+    }
+
+    /** Mean of all rows, the outfit-level input the model was trained on. */
+    public float[] mean() {
+        int features = ItemFeatureEncoder.FEATURES;
+        float[] mean = new float[features];
+        if (items.isEmpty()) {
+            return mean;
+        }
+        for (int i = 0; i < matrix.length; i++) {
+            mean[i % features] += matrix[i];
+        }
+        for (int f = 0; f < features; f++) {
+            mean[f] /= items.size();
+        }
+        return mean;
+    }
+
+    /** Cosine similarity between row {@code row} and {@code target}. */
+    public float cosine(int row, float[] target) {
+        int offset = offset(row);
+        float dot = 0, a = 0, b = 0;
+        for (int f = 0; f < target.length; f++) {
+            float x = matrix[offset + f];
+            dot += x * target[f];
+            a += x * x;
+            b += target[f] * target[f];
+        }
+        return a == 0 || b == 0 ? 0 : dot / (float) Math.sqrt(a * b);
+    }
+
+    /** Returns a copy with {@code item} appended (or replaced if already present), encoding only that item. */
+    public WardrobeFeatures with(WardrobeItem item, ItemFeatureEncoder encoder) {
+        int features = ItemFeatureEncoder.FEATURES;
+        int existing = indexOf(item.getId());
+        List<WardrobeItem> nextItems = new ArrayList<>(items);
+        float[] next;
+        if (existing >= 0) {
+            nextItems.set(existing, item);
+            next = matrix.clone();
+            encoder.encode(item, next, existing * features);
+        } else {
+            nextItems.add(item);
+            next = new float[matrix.length + features];
+            System.arraycopy(matrix, 0, next, 0, matrix.length);
+            encoder.encode(item, next, matrix.length);
+        }
+        return new WardrobeFeatures(List.copyOf(nextItems), next);
+    }
+
+    /** Returns a copy without the item, or {@code this} if it is not part of the wardrobe. */
+    public WardrobeFeatures without(UUID itemId) {
+        int row = indexOf(itemId);
+        if (row < 0) {
+            return this;
+        }
+        int features = ItemFeatureEncoder.FEATURES;
+        List<WardrobeItem> nextItems = new ArrayList<>(items);
+        nextItems.remove(row);
+        float[] next = new float[matrix.length - features];
+        System.arraycopy(matrix, 0, next, 0, row * features);
+        System.arraycopy(matrix, (row + 1) * features, next, row * features, next.length - row * features);
+        return new WardrobeFeatures(List.copyOf(nextItems), next);
+    }
+
+    private int indexOf(UUID itemId) {
+        if (itemId == null) {
+            return -1;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (itemId.equals(items.get(i).getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.virtualwardrobe.backend.service.ai.vector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * Exact index that scores every row. Vectors are stored column-major, so the Vector API kernel
+ * fills one SIMD register with the scores of several rows per pass regardless of how short the
+ * vectors are; without {@code --add-modules jdk.incubator.vector} the same loop runs scalar.
+ */
+public final class FlatVectorIndex implements VectorIndex {
+
+    static final boolean SIMD_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final int size;
+    private final int dimension;
+    private final float[] columns;
+    private final boolean simd;
+
+    private FlatVectorIndex(float[] rows, int dimension, boolean simd) {
+        this.dimension = dimension;
+        this.size = rows.length / dimension;
+        this.simd = simd;
+        this.columns = new float[rows.length];
+        for (int row = 0; row < size; row++) {
+            for (int d = 0; d < dimension; d++) {
+                columns[d * size + row] = rows[row * dimension + d];
+            }
+        }
+    }
+
+    /** Whether {@link #of} scans with the Vector API, which needs {@code --add-modules jdk.incubator.vector}. */
+    public static boolean simdAvailable() {
+        return SIMD_AVAILABLE;
+    }
+
+    /** Builds from row-major unit vectors, using SIMD when the Vector API is available. */
+    public static FlatVectorIndex of(float[] rows, int dimension) {
+        return new FlatVectorIndex(rows, dimension, SIMD_AVAILABLE);
+    }
+
+    /** Plain-loop variant; the brute-force baseline for benchmarks and recall checks. */
+    public static FlatVectorIndex scalar(float[] rows, int dimension) {
+        return new FlatVectorIndex(rows, dimension, false);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    /** Similarity of {@code query} to every row. */
+    public float[] scores(float[] query) {
+        float[] scores = new float[size];
+        if (simd) {
+            SimdScorer.scores(columns, size, dimension, query, scores);
+        } else {
+            for (int d = 0; d < dimension; d++) {
+                float q = query[d];
+                int base = d * size;
+                for (int row = 0; row < size; row++) {
+                    scores[row] += columns[base + row] * q;
+                }
+            }
+        }
+        return scores;
+    }
+
+    @Override
+    public List<Neighbor> search(float[] query, int k, IntPredicate accept) {
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] scores = scores(query);
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(a.score(), b.score()));
+        for (int row = 0; row < size; row++) {
+            if (best.size() == k && scores[row] <= best.peek().score()) {
+                continue;
+            }
+            if (!accept.test(row)) {
+                continue;
+            }
+            best.add(new Neighbor(row, scores[row]));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Collections.reverseOrder((a, b) -> Float.compare(a.score(), b.score())));
+        return result;
+    }
+}
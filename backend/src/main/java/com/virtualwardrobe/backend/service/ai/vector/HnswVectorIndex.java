@@ -0,0 +1,251 @@
+package com.virtualwardrobe.backend.service.ai.vector;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+
+/**
+ * Approximate index on a Hierarchical Navigable Small World graph (Malkov &amp; Yashunin).
+ * <p>
+ * Every row is a node on layer 0 and, with geometrically falling probability, on higher layers
+ * too. A search descends greedily from the single top-level entry point and then runs a beam of
+ * width {@code efSearch} on layer 0. Neighbours are chosen with the paper's diversity heuristic,
+ * which keeps the graph connected even when many rows share the same vector, as items with the
+ * same category, season and colour do. Rows rejected by the search filter are still traversed, so
+ * a selective filter costs extra hops but not recall.
+ */
+public final class HnswVectorIndex implements VectorIndex {
+
+    private final int size;
+    private final int dimension;
+    private final float[] vectors;
+    private final int maxLinks;
+    private final int maxLinksLayer0;
+    private final int efSearch;
+
+    // links[node][layer] holds linkCounts[node][layer] neighbour ids
+    private final int[][][] links;
+    private final int[][] linkCounts;
+    private int entryPoint = -1;
+    private int topLayer = -1;
+
+    private HnswVectorIndex(float[] rows, int dimension, int m, int efSearch) {
+        this.size = rows.length / dimension;
+        this.dimension = dimension;
+        this.vectors = rows.clone();
+        this.maxLinks = m;
+        this.maxLinksLayer0 = 2 * m;
+        this.efSearch = efSearch;
+        this.links = new int[size][][];
+        this.linkCounts = new int[size][];
+    }
+
+    /**
+     * Builds the graph over row-major unit vectors.
+     *
+     * @param m              links per node on the upper layers (twice as many on layer 0)
+     * @param efConstruction beam width while inserting; higher builds slower but searches better
+     * @param efSearch       minimum beam width while searching
+     * @param seed           seed for the layer assignment, making builds reproducible
+     */
+    public static HnswVectorIndex build(float[] rows, int dimension, int m, int efConstruction, int efSearch, long seed) {
+        HnswVectorIndex index = new HnswVectorIndex(rows, dimension, m, efSearch);
+        Random random = new Random(seed);
+        double levelMultiplier = 1 / Math.log(Math.max(2, m));
+        for (int node = 0; node < index.size; node++) {
+            int layer = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            index.insert(node, layer, efConstruction);
+        }
+        return index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public List<Neighbor> search(float[] query, int k, IntPredicate accept) {
+        if (size == 0 || k <= 0) {
+            return List.of();
+        }
+        int entry = entryPoint;
+        for (int layer = topLayer; layer > 0; layer--) {
+            entry = greedyClosest(query, entry, layer);
+        }
+        List<Neighbor> found = searchLayer(query, entry, Math.max(efSearch, k), 0, accept);
+        return found.size() > k ? List.copyOf(found.subList(0, k)) : found;
+    }
+
+    private void insert(int node, int layer, int efConstruction) {
+        links[node] = new int[layer + 1][];
+        linkCounts[node] = new int[layer + 1];
+        for (int l = 0; l <= layer; l++) {
+            links[node][l] = new int[capacity(l) + 1]; // one spare slot before pruning
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = layer;
+            return;
+        }
+
+        float[] query = Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension);
+        int entry = entryPoint;
+        for (int l = topLayer; l > layer; l--) {
+            entry = greedyClosest(query, entry, l);
+        }
+        for (int l = Math.min(layer, topLayer); l >= 0; l--) {
+            List<Neighbor> candidates = searchLayer(query, entry, efConstruction, l, row -> true);
+            List<Neighbor> selected = selectNeighbors(candidates, capacity(l));
+            for (Neighbor neighbor : selected) {
+                links[node][l][linkCounts[node][l]++] = neighbor.row();
+                link(neighbor.row(), node, l);
+            }
+            entry = candidates.get(0).row();
+        }
+        if (layer > topLayer) {
+            entryPoint = node;
+            topLayer = layer;
+        }
+    }
+
+    /** Adds {@code target} to {@code node}'s links on {@code layer}, re-selecting them if that overflows. */
+    private void link(int node, int target, int layer) {
+        int[] nodeLinks = links[node][layer];
+        int count = linkCounts[node][layer];
+        nodeLinks[count++] = target;
+        if (count <= capacity(layer)) {
+            linkCounts[node][layer] = count;
+            return;
+        }
+        List<Neighbor> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(new Neighbor(nodeLinks[i], similarity(node, nodeLinks[i])));
+        }
+        candidates.sort(BEST_FIRST);
+        List<Neighbor> kept = selectNeighbors(candidates, capacity(layer));
+        for (int i = 0; i < kept.size(); i++) {
+            nodeLinks[i] = kept.get(i).row();
+        }
+        linkCounts[node][layer] = kept.size();
+    }
+
+    /**
+     * Diversity heuristic: a candidate is kept only if it is closer to the base node than to every
+     * neighbour kept so far. Pruned candidates fill any remaining slots, best first.
+     */
+    private List<Neighbor> selectNeighbors(List<Neighbor> candidates, int limit) {
+        List<Neighbor> selected = new ArrayList<>(limit);
+        List<Neighbor> pruned = new ArrayList<>();
+        for (Neighbor candidate : candidates) {
+            if (selected.size() == limit) {
+                break;
+            }
+            boolean diverse = true;
+            for (Neighbor kept : selected) {
+                if (similarity(candidate.row(), kept.row()) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : pruned).add(candidate);
+        }
+        for (int i = 0; i < pruned.size() && selected.size() < limit; i++) {
+            selected.add(pruned.get(i));
+        }
+        return selected;
+    }
+
+    private int greedyClosest(float[] query, int entry, int layer) {
+        int current = entry;
+        float best = similarity(query, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] nodeLinks = links[current][layer];
+            for (int i = 0, n = linkCounts[current][layer]; i < n; i++) {
+                float score = similarity(query, nodeLinks[i]);
+                if (score > best) {
+                    best = score;
+                    current = nodeLinks[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /** Beam search on one layer; returns up to {@code ef} accepted nodes, most similar first. */
+    private List<Neighbor> searchLayer(float[] query, int entry, int ef, int layer, IntPredicate accept) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Neighbor> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Neighbor> results = new PriorityQueue<>(ef + 1, WORST_FIRST);
+
+        Neighbor start = new Neighbor(entry, similarity(query, entry));
+        visited.set(entry);
+        candidates.add(start);
+        if (accept.test(entry)) {
+            results.add(start);
+        }
+
+        while (!candidates.isEmpty()) {
+            Neighbor closest = candidates.poll();
+            if (results.size() >= ef && closest.score() < results.peek().score()) {
+                break;
+            }
+            int[] nodeLinks = links[closest.row()][layer];
+            for (int i = 0, n = linkCounts[closest.row()][layer]; i < n; i++) {
+                int next = nodeLinks[i];
+                if (visited.get(next)) {
+                    continue;
+                }
+                visited.set(next);
+                float score = similarity(query, next);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Neighbor neighbor = new Neighbor(next, score);
+                    candidates.add(neighbor);
+                    if (accept.test(next)) {
+                        results.add(neighbor);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> found = new ArrayList<>(results);
+        found.sort(BEST_FIRST);
+        return found;
+    }
+
+    private int capacity(int layer) {
+        return layer == 0 ? maxLinksLayer0 : maxLinks;
+    }
+
+    private float similarity(float[] query, int node) {
+        int offset = node * dimension;
+        float dot = 0;
+        for (int d = 0; d < dimension; d++) {
+            dot += query[d] * vectors[offset + d];
+        }
+        return dot;
+    }
+
+    private float similarity(int a, int b) {
+        int offsetA = a * dimension;
+        int offsetB = b * dimension;
+        float dot = 0;
+        for (int d = 0; d < dimension; d++) {
+            dot += vectors[offsetA + d] * vectors[offsetB + d];
+        }
+        return dot;
+    }
+
+    private static final Comparator<Neighbor> BEST_FIRST = (a, b) -> Float.compare(b.score(), a.score());
+    private static final Comparator<Neighbor> WORST_FIRST = (a, b) -> Float.compare(a.score(), b.score());
+}
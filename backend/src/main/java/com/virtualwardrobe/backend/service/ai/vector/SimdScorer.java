@@ -0,0 +1,37 @@
+package com.virtualwardrobe.backend.service.ai.vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernel of {@link FlatVectorIndex}. Kept in its own class so it is only loaded when
+ * the {@code jdk.incubator.vector} module is present.
+ */
+final class SimdScorer {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private SimdScorer() {
+    }
+
+    /** One lane per row: accumulates {@code query[d] * column d} for a whole register of rows at once. */
+    static void scores(float[] columns, int size, int dimension, float[] query, float[] out) {
+        int bound = SPECIES.loopBound(size);
+        int row = 0;
+        for (; row < bound; row += SPECIES.length()) {
+            FloatVector acc = FloatVector.zero(SPECIES);
+            for (int d = 0; d < dimension; d++) {
+                FloatVector column = FloatVector.fromArray(SPECIES, columns, d * size + row);
+                acc = column.fma(FloatVector.broadcast(SPECIES, query[d]), acc);
+            }
+            acc.intoArray(out, row);
+        }
+        for (; row < size; row++) {
+            float dot = 0;
+            for (int d = 0; d < dimension; d++) {
+                dot += columns[d * size + row] * query[d];
+            }
+            out[row] = dot;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.virtualwardrobe.backend.service.ai.vector;
+
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Nearest-neighbour index over unit-length vectors, ranked by dot product (cosine similarity).
+ * Rows are identified by their position in the row-major matrix the index was built from.
+ * Implementations are immutable once built and safe for concurrent searches.
+ */
+public interface VectorIndex {
+
+    int size();
+
+    int dimension();
+
+    /**
+     * Returns up to {@code k} rows accepted by {@code accept}, most similar first. {@code query}
+     * must be unit length and {@link #dimension()} long.
+     */
+    List<Neighbor> search(float[] query, int k, IntPredicate accept);
+
+    record Neighbor(int row, float score) {
+    }
+
+    /** Scales {@code vector} to unit length in place; a zero vector is left as is. */
+    static float[] normalize(float[] vector, int offset, int length) {
+        float norm = 0;
+        for (int i = offset; i < offset + length; i++) {
+            norm += vector[i] * vector[i];
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = offset; i < offset + length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,32 @@
+package com.virtualwardrobe.backend.service.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/** Uploads to Cloudinary; the SDK streams the file from disk. */
+@Component
+@ConditionalOnProperty(name = "image.store", havingValue = "cloudinary", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CloudinaryImageStore implements ImageStore {
+
+    private final Cloudinary cloudinary;
+
+    @Override
+    public String name() {
+        return "cloudinary";
+    }
+
+    @Override
+    public String store(Path file, String folder) throws IOException {
+        Map<?, ?> options = folder == null ? ObjectUtils.emptyMap() : ObjectUtils.asMap("folder", folder);
+        Map<?, ?> result = cloudinary.uploader().upload(file.toFile(), options);
+        return (String) result.get("secure_url");
+    }
+}
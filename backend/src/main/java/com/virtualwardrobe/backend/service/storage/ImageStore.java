@@ -0,0 +1,20 @@
+package com.virtualwardrobe.backend.service.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Destination for uploaded images. Implementations read the image from a local file, so callers
+ * never need the bytes on the heap, and return the URL the client should store as image path.
+ */
+public interface ImageStore {
+
+    /** Short identifier used as the {@code store} metric tag. */
+    String name();
+
+    /**
+     * Stores {@code file} under {@code folder} (may be null) and returns its public URL. The
+     * caller owns {@code file} and deletes it afterwards.
+     */
+    String store(Path file, String folder) throws IOException;
+}
@@ -0,0 +1,61 @@
+package com.virtualwardrobe.backend.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Keeps images on the local filesystem and serves them back under {@code /images/**}. Meant for
+ * development and tests where no Cloudinary account is available.
+ */
+@Component
+@ConditionalOnProperty(name = "image.store", havingValue = "local")
+public class LocalImageStore implements ImageStore, WebMvcConfigurer {
+
+    private final Path root;
+    private final String publicUrl;
+
+    public LocalImageStore(@Value("${image.local.dir:${java.io.tmpdir}/wardrobe-images}") String dir,
+                           @Value("${image.local.public-url:http://localhost:8080/images}") String publicUrl) throws IOException {
+        this.root = Files.createDirectories(Path.of(dir)).toAbsolutePath().normalize();
+        this.publicUrl = publicUrl.endsWith("/") ? publicUrl.substring(0, publicUrl.length() - 1) : publicUrl;
+    }
+
+    @Override
+    public String name() {
+        return "local";
+    }
+
+    @Override
+    public String store(Path file, String folder) throws IOException {
+        Path directory = folder == null ? root : root.resolve(folder).normalize();
+        if (!directory.startsWith(root)) {
+            throw new IOException("Invalid folder: " + folder);
+        }
+        Files.createDirectories(directory);
+
+        Path target = directory.resolve(UUID.randomUUID() + extension(file));
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        return publicUrl + "/" + root.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/images/**")
+                .addResourceLocations(root.toUri().toString());
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? "" : name.substring(dot);
+    }
+}
@@ -59,3 +59,61 @@ CREATE TABLE IF NOT EXISTS suggested_outfit (
     clothing_items_id UUID NOT NULL REFERENCES clothing_items(id) ON DELETE CASCADE,
     type TEXT NOT NULL
 );
+
+-- Keyset pagination indexes
+CREATE INDEX IF NOT EXISTS idx_clothing_items_user_id ON clothing_items (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_clothing_items_user_category ON clothing_items (user_id, category, id);
+-- The season and colour filters compare case-insensitively, so only expression indexes serve them
+CREATE INDEX IF NOT EXISTS idx_clothing_items_user_season ON clothing_items (user_id, lower(season), id);
+CREATE INDEX IF NOT EXISTS idx_clothing_items_user_colour ON clothing_items (user_id, lower(colour), id);
+CREATE INDEX IF NOT EXISTS idx_outfits_user_created ON outfits (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_outfit_history_outfit_worn ON outfit_history (outfit_id, worn_on);
+
+-- 8. item_wear_stats (maintained by OutfitHistoryService, rebuilt by WearStatsService.rebuild)
+CREATE TABLE IF NOT EXISTS item_wear_stats (
+    item_id UUID PRIMARY KEY REFERENCES clothing_items(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL,
+    category TEXT,
+    season TEXT,
+    wear_count INT NOT NULL DEFAULT 0,
+    first_worn DATE,
+    last_worn DATE
+);
+CREATE INDEX IF NOT EXISTS idx_item_wear_stats_least_worn ON item_wear_stats (user_id, category, wear_count, item_id);
+CREATE INDEX IF NOT EXISTS idx_item_wear_stats_season ON item_wear_stats (user_id, category, season, wear_count, item_id);
+CREATE INDEX IF NOT EXISTS idx_item_wear_stats_last_worn ON item_wear_stats (user_id, last_worn NULLS FIRST, item_id);
+
+-- 9. image_hashes (upload deduplication)
+CREATE TABLE IF NOT EXISTS image_hashes (
+    sha256 TEXT NOT NULL,
+    store TEXT NOT NULL,
+    url TEXT NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (sha256, store)
+);
+
+-- Per-user wardrobe version backing ETags (bumped by WardrobeVersionService)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS wardrobe_version BIGINT NOT NULL DEFAULT 0;
+
+-- Persisted suggestion results (written by SuggestionCache), keyed by wardrobe version and context
+ALTER TABLE outfits_suggestions ADD COLUMN IF NOT EXISTS wardrobe_version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE outfits_suggestions ADD COLUMN IF NOT EXISTS context TEXT NOT NULL DEFAULT '';
+ALTER TABLE suggested_outfit ADD COLUMN IF NOT EXISTS outfit_rank INT NOT NULL DEFAULT 0;
+ALTER TABLE suggested_outfit ADD COLUMN IF NOT EXISTS item_position INT NOT NULL DEFAULT 0;
+ALTER TABLE suggested_outfit ADD COLUMN IF NOT EXISTS score DOUBLE PRECISION NOT NULL DEFAULT 0;
+CREATE UNIQUE INDEX IF NOT EXISTS idx_outfits_suggestions_key ON outfits_suggestions (user_id, wardrobe_version, context);
+CREATE INDEX IF NOT EXISTS idx_suggested_outfit_suggestion ON suggested_outfit (ai_suggestion_id);
+
+-- Nightly suggestion pre-computation runs (SuggestionPrecomputeJob), one row per day
+CREATE TABLE IF NOT EXISTS suggestion_runs (
+    run_date DATE PRIMARY KEY,
+    status TEXT NOT NULL,
+    started_at TIMESTAMPTZ NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMPTZ,
+    locked_until TIMESTAMPTZ NOT NULL,
+    last_user_id UUID,
+    users_processed BIGINT NOT NULL DEFAULT 0,
+    users_failed BIGINT NOT NULL DEFAULT 0,
+    active_millis BIGINT NOT NULL DEFAULT 0,
+    users_per_second DOUBLE PRECISION
+);
@@ -4,7 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 
-@SpringBootTest
+// Test-only signing key; the application refuses to start without one
+@SpringBootTest(properties = "jwt.secret=dGVzdC1vbmx5LWp3dC1zZWNyZXQtbm90LWZvci1wcm9kdWN0aW9uIQ==")
 class BackendApplicationTests {
 
 	@Test
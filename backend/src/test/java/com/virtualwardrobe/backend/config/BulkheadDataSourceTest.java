@@ -0,0 +1,67 @@
+package com.virtualwardrobe.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    private Bulkheads bulkheads;
+    private Connection pooled;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        bulkheads = new Bulkheads(2, 1, 1, 50);
+        pooled = mock(Connection.class);
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(pooled);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("bulkheads", bulkheads);
+        dataSource = (DataSource) BulkheadDataSourceConfig.bulkheadDataSourcePostProcessor(
+                beans.getBeanProvider(Bulkheads.class)).postProcessAfterInitialization(pool, "dataSource");
+    }
+
+    @Test
+    void closingReleasesThePermitOnce() throws Exception {
+        Connection connection = dataSource.getConnection();
+        assertThat(bulkheads.database().inUse()).isEqualTo(1);
+
+        connection.close();
+        connection.close();
+
+        assertThat(bulkheads.database().inUse()).isZero();
+        verify(pooled, times(2)).close();
+    }
+
+    @Test
+    void unwrappingToConnectionKeepsTheGuard() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        Connection unwrapped = connection.unwrap(Connection.class);
+        assertThat(unwrapped).isSameAs(connection);
+        unwrapped.close();
+
+        assertThat(bulkheads.database().inUse()).isZero();
+    }
+
+    @Test
+    void borrowingBeyondThePermitsFailsFast() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(BulkheadFullException.class);
+
+        first.close();
+        dataSource.getConnection().close();
+        second.close();
+        assertThat(bulkheads.database().inUse()).isZero();
+    }
+}
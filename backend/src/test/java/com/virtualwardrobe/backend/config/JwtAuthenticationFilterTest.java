@@ -0,0 +1,143 @@
+package com.virtualwardrobe.backend.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "dGVzdC1vbmx5LWp3dC1zZWNyZXQtbm90LWZvci1wcm9kdWN0aW9uIQ==";
+    private static final String OTHER_SECRET = "YW5vdGhlci10ZXN0LW9ubHkta2V5LXRoYXQtc2hvdWxkLW5vdC12ZXJpZnk=";
+
+    private CustomUserDetailsService userDetailsService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(CustomUserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation ->
+                User.withUsername(invocation.getArgument(0)).password("x").roles("USER").build());
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticatesAndIsVerifiedOnce() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+        JwtAuthenticationFilter filter = filter(jwtUtil, 10);
+        String token = jwtUtil.generateToken("a@example.com");
+
+        assertThat(authenticate(filter, token).getName()).isEqualTo("a@example.com");
+        assertThat(authenticate(filter, token).getName()).isEqualTo("a@example.com");
+
+        assertThat(cacheCount("miss")).isEqualTo(1);
+        assertThat(cacheCount("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void invalidTokensStayAnonymous() throws Exception {
+        JwtAuthenticationFilter filter = filter(new JwtUtil(SECRET, 60_000), 10);
+        String foreign = new JwtUtil(OTHER_SECRET, 60_000).generateToken("a@example.com");
+        String expired = Jwts.builder()
+                .setSubject("a@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+
+        for (String token : new String[]{"not-a-jwt", "", foreign, expired}) {
+            MockFilterChain chain = new MockFilterChain();
+            assertThat(authenticate(filter, token, chain)).isNull();
+            assertThat(chain.getRequest()).isNotNull(); // the request still went down the chain
+        }
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    void tokenForDeletedUserStaysAnonymous() throws Exception {
+        when(userDetailsService.loadUserByUsername("gone@example.com"))
+                .thenThrow(new UsernameNotFoundException("gone"));
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+
+        assertThat(authenticate(filter(jwtUtil, 10), jwtUtil.generateToken("gone@example.com"))).isNull();
+    }
+
+    @Test
+    void fullCacheStillAuthenticatesButStopsCaching() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+        JwtAuthenticationFilter filter = filter(jwtUtil, 2);
+        String first = jwtUtil.generateToken("1@example.com");
+        String second = jwtUtil.generateToken("2@example.com");
+        String third = jwtUtil.generateToken("3@example.com");
+
+        authenticate(filter, first);
+        authenticate(filter, second);
+        assertThat(authenticate(filter, third).getName()).isEqualTo("3@example.com");
+        assertThat(authenticate(filter, third).getName()).isEqualTo("3@example.com");
+        authenticate(filter, first);
+
+        assertThat(cacheCount("miss")).isEqualTo(4); // third was verified twice
+        assertThat(cacheCount("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEntriesAreDroppedAndMakeRoom() throws Exception {
+        // jjwt stores exp in whole seconds, so give the short-lived tokens just over a second
+        JwtUtil shortLived = new JwtUtil(SECRET, 1_200);
+        JwtUtil longLived = new JwtUtil(SECRET, 60_000);
+        JwtAuthenticationFilter filter = filter(shortLived, 2);
+        String first = shortLived.generateToken("1@example.com");
+        String second = shortLived.generateToken("2@example.com");
+        authenticate(filter, first);
+        authenticate(filter, second);
+
+        Thread.sleep(2_300);
+
+        String third = longLived.generateToken("3@example.com");
+        authenticate(filter, third);
+        assertThat(authenticate(filter, third).getName()).isEqualTo("3@example.com");
+        assertThat(cacheCount("hit")).isEqualTo(1); // cached: the full cache dropped its expired entries
+
+        assertThat(authenticate(filter, first)).isNull(); // no longer cached, and rejected on verification
+    }
+
+    private JwtAuthenticationFilter filter(JwtUtil jwtUtil, int maxEntries) {
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, meterRegistry, maxEntries);
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        return authenticate(filter, token, new MockFilterChain());
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter, String token, MockFilterChain chain) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/clothing/user/x");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private double cacheCount(String result) {
+        return meterRegistry.counter("wardrobe.auth.token.cache", "result", result).count();
+    }
+}
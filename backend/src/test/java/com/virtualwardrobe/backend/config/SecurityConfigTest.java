@@ -0,0 +1,136 @@
+package com.virtualwardrobe.backend.config;
+
+import com.virtualwardrobe.backend.controller.AiController;
+import com.virtualwardrobe.backend.controller.ModelAdminController;
+import com.virtualwardrobe.backend.service.ai.ComplementService;
+import com.virtualwardrobe.backend.service.ai.OnnxService;
+import com.virtualwardrobe.backend.service.ai.OutfitSuggestionService;
+import com.virtualwardrobe.backend.service.ai.SuggestionStreamService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs bearer-token requests through the real filter chain, including the async re-dispatch that
+ * delivers SSE streams and {@code CompletableFuture} results.
+ */
+@WebMvcTest(controllers = {AiController.class, ModelAdminController.class},
+        properties = "jwt.secret=" + SecurityConfigTest.SECRET)
+@Import({SecurityConfig.class, JwtUtil.class, SecurityConfigTest.Metrics.class})
+class SecurityConfigTest {
+
+    static final String SECRET = "dGVzdC1vbmx5LWp3dC1zZWNyZXQtbm90LWZvci1wcm9kdWN0aW9uIQ==";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private CustomUserDetailsService userDetailsService;
+
+    @MockitoBean
+    private OutfitSuggestionService outfitSuggestionService;
+
+    @MockitoBean
+    private SuggestionStreamService suggestionStreamService;
+
+    @MockitoBean
+    private ComplementService complementService;
+
+    @MockitoBean
+    private OnnxService onnxService;
+
+    @BeforeEach
+    void setUp() {
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> {
+            String email = invocation.getArgument(0);
+            return User.withUsername(email).password("x")
+                    .roles(email.startsWith("admin") ? "ADMIN" : "USER").build();
+        });
+    }
+
+    @Test
+    void authenticatedStreamIsDeliveredOnTheAsyncDispatch() throws Exception {
+        SseEmitter emitter = new SseEmitter(5_000L);
+        when(suggestionStreamService.stream(any(), anyInt(), any())).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/ai/suggest-outfit/{userId}/stream", UUID.randomUUID())
+                        .header(HttpHeaders.AUTHORIZATION, bearer("user@example.com")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("done").data(List.of(), MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    void adminReloadIsDeliveredOnTheAsyncDispatch() throws Exception {
+        CompletableFuture<OnnxService.ModelInfo> reload = new CompletableFuture<>();
+        when(onnxService.reload(any(), any())).thenReturn(reload);
+
+        MvcResult result = mockMvc.perform(post("/api/admin/model/reload").param("version", "v2")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("admin@example.com")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        reload.complete(new OnnxService.ModelInfo("v2", "outfit_suggester.onnx", Instant.EPOCH, 12));
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value("v2"));
+    }
+
+    @Test
+    void theRequestDispatchIsStillAuthorized() throws Exception {
+        mockMvc.perform(get("/api/ai/suggest-outfit/{userId}/stream", UUID.randomUUID()))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/admin/model/reload")
+                        .header(HttpHeaders.AUTHORIZATION, bearer("user@example.com")))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(suggestionStreamService, onnxService);
+    }
+
+    private String bearer(String email) {
+        return "Bearer " + jwtUtil.generateToken(email);
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.virtualwardrobe.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualwardrobe.backend.config.BulkheadFullException;
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import com.virtualwardrobe.backend.service.ai.ComplementService;
+import com.virtualwardrobe.backend.service.ai.OutfitSearchEngine;
+import com.virtualwardrobe.backend.service.ai.OutfitSuggestionService;
+import com.virtualwardrobe.backend.service.ai.SuggestionStreamService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AiControllerTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final OutfitSuggestionService outfitSuggestionService = mock(OutfitSuggestionService.class);
+    private final UUID userId = UUID.randomUUID();
+    private SuggestionStreamService streamService;
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        if (streamService != null) {
+            streamService.shutdown();
+        }
+    }
+
+    @Test
+    void streamSendsEachImprovementThenTheFinalRanking() throws Exception {
+        streams(2, 4);
+        OutfitSearchEngine.ScoredOutfit first = outfit(0.4, "red");
+        OutfitSearchEngine.ScoredOutfit second = outfit(0.9, "blue");
+        OutfitSearchEngine.ScoredOutfit third = outfit(0.2, "green");
+        when(outfitSuggestionService.suggestProgressively(eq(userId), eq(3), isNull(), any())).thenAnswer(invocation -> {
+            Consumer<OutfitSearchEngine.ScoredOutfit> onImproved = invocation.getArgument(3);
+            onImproved.accept(first);
+            onImproved.accept(second);
+            return List.of(second, first, third);
+        });
+
+        List<Event> events = stream("/api/ai/suggest-outfit/{userId}/stream?k=3");
+
+        assertThat(events).extracting(Event::name).containsExactly("outfit", "outfit", "done");
+        assertThat(events).extracting(Event::id).containsExactly("1", "2", null);
+        assertThat(events.get(0).data().get("score").asDouble()).isEqualTo(0.4);
+        assertThat(events.get(1).data().get("items").get(0).get("colour").asText()).isEqualTo("blue");
+        JsonNode ranking = events.get(2).data();
+        assertThat(ranking).hasSize(3);
+        assertThat(ranking.get(0).get("score").asDouble()).isEqualTo(0.9);
+        assertThat(ranking.get(2).get("items").get(0).get("colour").asText()).isEqualTo("green");
+    }
+
+    @Test
+    void failedSearchEndsWithAnErrorEventInsteadOfDone() throws Exception {
+        streams(2, 4);
+        when(outfitSuggestionService.suggestProgressively(eq(userId), eq(5), isNull(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<OutfitSearchEngine.ScoredOutfit>>getArgument(3).accept(outfit(0.5, "red"));
+            throw new IllegalStateException("model output has the wrong shape");
+        });
+
+        List<Event> events = stream("/api/ai/suggest-outfit/{userId}/stream");
+
+        assertThat(events).extracting(Event::name).containsExactly("outfit", "error");
+        assertThat(events.get(1).data().get("error").asText()).isEqualTo("Suggestion failed");
+    }
+
+    @Test
+    void overloadedSearchTellsTheClientToRetry() throws Exception {
+        streams(2, 4);
+        when(outfitSuggestionService.suggestProgressively(any(), anyInt(), any(), any()))
+                .thenThrow(new BulkheadFullException("inference"));
+
+        List<Event> events = stream("/api/ai/suggest-outfit/{userId}/stream");
+
+        assertThat(events).extracting(Event::name).containsExactly("error");
+        assertThat(events.get(0).data().get("error").asText()).isEqualTo("Suggestions are busy, try again shortly");
+    }
+
+    @Test
+    void saturatedStreamPoolIsRejectedUpFrontWith503() throws Exception {
+        streams(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(outfitSuggestionService.suggestProgressively(any(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return List.of();
+        });
+
+        MvcResult active = open("/api/ai/suggest-outfit/{userId}/stream");
+        assertThat(running.await(2, TimeUnit.SECONDS)).isTrue();
+        MvcResult queued = open("/api/ai/suggest-outfit/{userId}/stream");
+
+        mockMvc.perform(get("/api/ai/suggest-outfit/{userId}/stream", userId))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(content().string(""));
+
+        release.countDown();
+        for (MvcResult result : List.of(active, queued)) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+            assertThat(events(result)).extracting(Event::name).containsExactly("done");
+        }
+    }
+
+    @Test
+    void clientDisconnectInterruptsTheSearch() throws Exception {
+        streams(2, 4);
+        CountDownLatch reported = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(outfitSuggestionService.suggestProgressively(any(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<OutfitSearchEngine.ScoredOutfit>>getArgument(3).accept(outfit(0.5, "red"));
+            reported.countDown();
+            try {
+                Thread.sleep(10_000); // a long search the client stops waiting for
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return List.of();
+        });
+
+        MvcResult result = open("/api/ai/suggest-outfit/{userId}/stream");
+        assertThat(reported.await(2, TimeUnit.SECONDS)).isTrue();
+
+        // What the container reports when the connection drops
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : List.copyOf(asyncContext.getListeners())) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Broken pipe")));
+        }
+
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(events(result)).extracting(Event::name).startsWith("outfit").doesNotContain("done");
+    }
+
+    private void streams(int threads, int queueCapacity) {
+        streamService = new SuggestionStreamService(outfitSuggestionService, threads, queueCapacity, 5_000, false);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new AiController(outfitSuggestionService, streamService, mock(ComplementService.class))).build();
+    }
+
+    private MvcResult open(String uri) throws Exception {
+        return mockMvc.perform(get(uri, userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /** Performs the request, waits for the stream to finish and returns its events in order. */
+    private List<Event> stream(String uri) throws Exception {
+        MvcResult result = open(uri);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/event-stream"));
+        return events(result);
+    }
+
+    private static List<Event> events(MvcResult result) throws Exception {
+        List<Event> events = new ArrayList<>();
+        for (String block : result.getResponse().getContentAsString().split("\n\n")) {
+            String name = null;
+            String id = null;
+            JsonNode data = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("id:")) {
+                    id = line.substring("id:".length());
+                } else if (line.startsWith("data:")) {
+                    data = JSON.readTree(line.substring("data:".length()));
+                }
+            }
+            if (name != null) {
+                events.add(new Event(name, id, data));
+            }
+        }
+        return events;
+    }
+
+    private static OutfitSearchEngine.ScoredOutfit outfit(double score, String colour) {
+        WardrobeItem item = WardrobeItem.from(ClothingItem.builder()
+                .id(UUID.randomUUID())
+                .name(colour + " top")
+                .category("tops")
+                .colour(colour)
+                .build());
+        return new OutfitSearchEngine.ScoredOutfit(List.of(item), score);
+    }
+
+    private record Event(String name, String id, JsonNode data) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.virtualwardrobe.backend.repository;
+
+import com.virtualwardrobe.backend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class UserRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = entityManager.persist(User.builder()
+                .username("rehash")
+                .email("rehash@example.com")
+                .password("$2a$05$old")
+                .build()).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void updatePasswordReplacesTheHashItWasGiven() {
+        assertThat(userRepository.updatePassword(userId, "$2a$05$old", "$2a$10$new")).isEqualTo(1);
+
+        entityManager.clear();
+        assertThat(userRepository.findById(userId)).get()
+                .extracting(User::getPassword).isEqualTo("$2a$10$new");
+    }
+
+    @Test
+    void updatePasswordLeavesAHashChangedInTheMeantime() {
+        // A password change lands between reading the old hash and writing its upgrade
+        assertThat(userRepository.updatePassword(userId, "$2a$05$old", "$2a$05$changed")).isEqualTo(1);
+
+        assertThat(userRepository.updatePassword(userId, "$2a$05$old", "$2a$10$upgraded")).isZero();
+
+        entityManager.clear();
+        assertThat(userRepository.findById(userId)).get()
+                .extracting(User::getPassword).isEqualTo("$2a$05$changed");
+    }
+
+    @Test
+    void updatePasswordForAnUnknownUserChangesNothing() {
+        assertThat(userRepository.updatePassword(UUID.randomUUID(), "$2a$05$old", "$2a$10$new")).isZero();
+    }
+}
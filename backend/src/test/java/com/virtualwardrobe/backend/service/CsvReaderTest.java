@@ -0,0 +1,88 @@
+package com.virtualwardrobe.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainRecordsAndEmptyFields() throws IOException {
+        assertThat(readAll("a,b,c\n1,,3\n,,\n")).containsExactly(
+                List.of("a", "b", "c"),
+                List.of("1", "", "3"),
+                List.of("", "", ""));
+    }
+
+    @Test
+    void handlesQuotesAndDoubledQuotes() throws IOException {
+        assertThat(readAll("\"a,b\",\"say \"\"hi\"\"\",\"\"\n")).containsExactly(
+                List.of("a,b", "say \"hi\"", ""));
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesAndCountsLines() throws IOException {
+        CsvReader reader = reader("id,name\r\n1,\"two\nlines\"\r\n2,plain");
+
+        assertThat(reader.next()).containsExactly("id", "name");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        assertThat(reader.next()).containsExactly("1", "two\nlines");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("2", "plain");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void skipsBlankLinesAndAcceptsAllLineEndings() throws IOException {
+        CsvReader reader = reader("a\r\n\r\n\nb\rc");
+
+        assertThat(reader.next()).containsExactly("a");
+        assertThat(reader.next()).containsExactly("b");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.next()).containsExactly("c");
+        assertThat(reader.recordLine()).isEqualTo(5);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void strayQuotesInUnquotedFieldsAreKeptLiterally() throws IOException {
+        assertThat(readAll("5\" heel,\"quoted\"tail\n")).containsExactly(List.of("5\" heel", "quotedtail"));
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() throws IOException {
+        CsvReader reader = reader("ok\n\"never closed,\nstill open");
+
+        assertThat(reader.next()).containsExactly("ok");
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertThat(reader("").next()).isNull();
+        assertThat(reader("\n\r\n").next()).isNull();
+    }
+
+    private static CsvReader reader(String csv) {
+        return new CsvReader(new StringReader(csv));
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        CsvReader reader = reader(csv);
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,120 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.dto.CursorPage;
+import com.virtualwardrobe.backend.dto.OutfitHistoryResponse;
+import com.virtualwardrobe.backend.model.Outfit;
+import com.virtualwardrobe.backend.model.OutfitHistory;
+import com.virtualwardrobe.backend.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({OutfitHistoryService.class, WearStatsService.class, WardrobeVersionService.class})
+class OutfitHistoryServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutfitHistoryService outfitHistoryService;
+
+    private UUID userId;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .username("history")
+                .email("history@example.com")
+                .password("x")
+                .build());
+        User other = entityManager.persist(User.builder()
+                .username("other")
+                .email("other@example.com")
+                .password("x")
+                .build());
+        userId = user.getId();
+
+        for (int o = 0; o < 3; o++) {
+            Outfit outfit = entityManager.persist(Outfit.builder().user(user).name("Outfit " + o).build());
+            for (int d = 0; d < 4; d++) {
+                entityManager.persist(OutfitHistory.builder()
+                        .outfit(outfit)
+                        .wornOn(LocalDate.of(2025, 1, 1 + o * 4 + d))
+                        .build());
+            }
+        }
+        Outfit foreign = entityManager.persist(Outfit.builder().user(other).name("Foreign").build());
+        entityManager.persist(OutfitHistory.builder().outfit(foreign).wornOn(LocalDate.of(2025, 1, 5)).build());
+
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void pagesThroughHistoryNewestFirstWithOneQueryPerPage() {
+        List<OutfitHistoryResponse> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            statistics.clear();
+            CursorPage<OutfitHistoryResponse> page = outfitHistoryService.findPage(userId, null, null, cursor, 5);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            all.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(all).hasSize(12);
+        assertThat(all).extracting(OutfitHistoryResponse::getWornOn)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(all.get(0).getWornOn()).isEqualTo(LocalDate.of(2025, 1, 12));
+        assertThat(all.get(0).getOutfitName()).isEqualTo("Outfit 2");
+    }
+
+    @Test
+    void listsAllHistoryNewestFirstWithOneQuery() {
+        List<OutfitHistoryResponse> all = outfitHistoryService.findByUserId(userId);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(all).hasSize(12);
+        assertThat(all).extracting(OutfitHistoryResponse::getOutfitName).doesNotContain("Foreign");
+        assertThat(all).extracting(OutfitHistoryResponse::getWornOn)
+                .isSortedAccordingTo((a, b) -> b.compareTo(a));
+        assertThat(all).isEqualTo(outfitHistoryService.findPage(userId, null, null, null, 100).getItems());
+    }
+
+    @Test
+    void restrictsToDateRange() {
+        CursorPage<OutfitHistoryResponse> page = outfitHistoryService.findPage(
+                userId, LocalDate.of(2025, 1, 3), LocalDate.of(2025, 1, 6), null, null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getItems()).extracting(OutfitHistoryResponse::getWornOn).containsExactly(
+                LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 5),
+                LocalDate.of(2025, 1, 4), LocalDate.of(2025, 1, 3));
+    }
+}
@@ -0,0 +1,194 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.config.CustomUserDetailsService;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PasswordHashingServiceTest {
+
+    private static final int STRENGTH = 4;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CustomUserDetailsService userDetailsService = mock(CustomUserDetailsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void needsRehashOnlyForBcryptHashesWithAnotherCost() {
+        service = service(new BCryptPasswordEncoder(STRENGTH), 1, 4, 5_000);
+
+        assertThat(service.needsRehash("$2a$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(service.needsRehash("$2y$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(service.needsRehash("$2b$10$abcdefghijklmnopqrstuu")).isTrue();
+        assertThat(service.needsRehash("$2x$12$abcdefghijklmnopqrstuu")).isTrue();
+        assertThat(service.needsRehash("$2$10$abcdefghijklmnopqrstuu")).isTrue();
+
+        // Not BCrypt, or not a cost we can read: leave alone rather than re-hash on every login
+        assertThat(service.needsRehash(null)).isFalse();
+        assertThat(service.needsRehash("")).isFalse();
+        assertThat(service.needsRehash("plain-text")).isFalse();
+        assertThat(service.needsRehash("{noop}$2a$10$abc")).isFalse();
+        assertThat(service.needsRehash("$2c$10$abc")).isFalse();
+        assertThat(service.needsRehash("$2a$7$abc")).isFalse();
+        assertThat(service.needsRehash("$2a$104$abc")).isFalse();
+    }
+
+    @Test
+    void loginWithAnOutdatedCostStoresAnUpgradedHash() {
+        service = service(new BCryptPasswordEncoder(STRENGTH), 1, 4, 5_000);
+        User user = user(new BCryptPasswordEncoder(5).encode("secret"));
+        when(userRepository.updatePassword(any(), anyString(), anyString())).thenReturn(1);
+
+        assertThat(service.verify(user, "secret")).isTrue();
+
+        verify(userRepository, timeout(2_000)).updatePassword(eq(user.getId()), eq(user.getPassword()), startsWith("$2a$04$"));
+        verify(userDetailsService, timeout(2_000)).evict(user.getEmail());
+        assertThat(meterRegistry.counter("wardrobe.auth.password.rehashed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void upgradeLosingToAConcurrentPasswordChangeIsDropped() throws Exception {
+        service = service(new BCryptPasswordEncoder(STRENGTH), 1, 4, 5_000);
+        User user = user(new BCryptPasswordEncoder(5).encode("secret"));
+        CountDownLatch attempted = new CountDownLatch(1);
+        when(userRepository.updatePassword(any(), anyString(), anyString())).thenAnswer(invocation -> {
+            attempted.countDown();
+            return 0; // the stored hash no longer matches
+        });
+
+        assertThat(service.verify(user, "secret")).isTrue();
+
+        assertThat(attempted.await(2, TimeUnit.SECONDS)).isTrue();
+        service.hash("drain"); // the single pool thread finishes the upgrade before taking this
+        verify(userDetailsService, never()).evict(any());
+        assertThat(meterRegistry.counter("wardrobe.auth.password.rehashed").count()).isZero();
+    }
+
+    @Test
+    void currentCostAndWrongPasswordsAreNotRehashed() {
+        service = service(new BCryptPasswordEncoder(STRENGTH), 1, 4, 5_000);
+        User user = user(new BCryptPasswordEncoder(STRENGTH).encode("secret"));
+
+        assertThat(service.verify(user, "secret")).isTrue();
+        assertThat(service.verify(user(new BCryptPasswordEncoder(5).encode("secret")), "wrong")).isFalse();
+        service.hash("drain");
+
+        verifyNoInteractions(userRepository, userDetailsService);
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediatelyWithTooManyRequests() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        service = service(encoder, 1, 1, 5_000);
+
+        Future<String> running = callers.submit(() -> service.hash("first"));
+        assertThat(encoder.started.await(2, TimeUnit.SECONDS)).isTrue();
+        Future<String> queued = callers.submit(() -> service.hash("second"));
+        awaitQueueDepth(1);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> service.hash("third")).isInstanceOf(PasswordHashingBusyException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        assertThat(meterRegistry.counter("wardrobe.auth.password.rejected").count()).isEqualTo(1);
+
+        encoder.gate.countDown();
+        assertThat(running.get(2, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(2, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(
+                PasswordHashingBusyException.class, ResponseStatus.class);
+        assertThat(status).isNotNull();
+        assertThat(status.code()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void operationsStuckInTheQueueTimeOut() throws Exception {
+        BlockingEncoder encoder = new BlockingEncoder();
+        service = service(encoder, 1, 4, 100);
+
+        Future<String> running = callers.submit(() -> service.hash("first"));
+        assertThat(encoder.started.await(2, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.matches("second", "hashed:second"))
+                .isInstanceOf(PasswordHashingBusyException.class)
+                .hasMessageContaining("timed out");
+        // The caller whose hash is stuck on the pool thread gives up after the same timeout
+        assertThatThrownBy(() -> running.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(PasswordHashingBusyException.class);
+        assertThat(meterRegistry.counter("wardrobe.auth.password.rejected").count()).isEqualTo(2);
+        encoder.gate.countDown();
+    }
+
+    private PasswordHashingService service(PasswordEncoder encoder, int threads, int queueCapacity, long timeoutMs) {
+        return new PasswordHashingService(encoder, userRepository, userDetailsService, meterRegistry,
+                STRENGTH, threads, queueCapacity, timeoutMs);
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (meterRegistry.get("wardrobe.auth.password.queue.depth").gauge().value() < depth) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static User user(String hash) {
+        return User.builder()
+                .id(UUID.randomUUID())
+                .username("login")
+                .email("login@example.com")
+                .password(hash)
+                .build();
+    }
+
+    /** Holds every encode until {@link #gate} opens, so the test controls how busy the pool is. */
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.virtualwardrobe.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        thumbnailService = new ThumbnailService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(thumbnailService, "dir", dir.toString());
+        ReflectionTestUtils.setField(thumbnailService, "threads", 1);
+        ReflectionTestUtils.setField(thumbnailService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(thumbnailService, "allowedOrigins",
+                List.of("https://res.cloudinary.com/demo/", "http://localhost:8080/images/"));
+        thumbnailService.init();
+    }
+
+    @Test
+    void onlyImageStoreUrlsAreAllowed() {
+        assertThat(thumbnailService.isAllowed("https://res.cloudinary.com/demo/image/upload/v1/a.jpg")).isTrue();
+        assertThat(thumbnailService.isAllowed("HTTPS://RES.CLOUDINARY.COM:443/demo/image/upload/a.jpg")).isTrue();
+        assertThat(thumbnailService.isAllowed("http://localhost:8080/images/ab/cd.png")).isTrue();
+
+        assertThat(thumbnailService.isAllowed(null)).isFalse();
+        assertThat(thumbnailService.isAllowed("http://169.254.169.254/latest/meta-data/")).isFalse();
+        assertThat(thumbnailService.isAllowed("https://res.cloudinary.com/other/image/upload/a.jpg")).isFalse();
+        assertThat(thumbnailService.isAllowed("https://res.cloudinary.com.evil.example/demo/a.jpg")).isFalse();
+        assertThat(thumbnailService.isAllowed("https://user@res.cloudinary.com/demo/a.jpg")).isFalse();
+        assertThat(thumbnailService.isAllowed("http://localhost:8081/images/a.png")).isFalse();
+        assertThat(thumbnailService.isAllowed("http://localhost:8080/images/../actuator/env")).isFalse();
+        assertThat(thumbnailService.isAllowed("http://localhost:8080/images/%2e%2e/actuator/env")).isFalse();
+        assertThat(thumbnailService.isAllowed("file:///etc/passwd")).isFalse();
+    }
+
+    @Test
+    void disallowedImagesAreNeverQueued() {
+        assertThat(thumbnailService.request("http://10.0.0.1/admin")).isFalse();
+    }
+
+    @Test
+    void versionFollowsTheImagePath() {
+        assertThat(ThumbnailService.version("a")).hasSize(16).isEqualTo(ThumbnailService.version("a"));
+        assertThat(ThumbnailService.version("a")).isNotEqualTo(ThumbnailService.version("b"));
+    }
+}
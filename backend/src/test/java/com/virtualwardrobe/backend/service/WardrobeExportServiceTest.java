@@ -0,0 +1,200 @@
+package com.virtualwardrobe.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.virtualwardrobe.backend.controller.ExportController;
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.Outfit;
+import com.virtualwardrobe.backend.model.OutfitHistory;
+import com.virtualwardrobe.backend.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(WardrobeExportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the export has to open its own transaction
+class WardrobeExportServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private WardrobeExportService exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID userId;
+    private List<UUID> itemIds;
+    private UUID fullOutfitId;
+    private UUID emptyOutfitId;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = entityManager.persist(user("export"));
+            User other = entityManager.persist(user("other"));
+            userId = user.getId();
+
+            List<ClothingItem> items = new ArrayList<>();
+            for (String category : List.of("tops", "bottoms", "shoes")) {
+                items.add(entityManager.persist(item(user, category)));
+            }
+            itemIds = items.stream().map(ClothingItem::getId).sorted().toList();
+            Outfit full = entityManager.persist(Outfit.builder()
+                    .user(user).name("Full").items(new ArrayList<>(items.subList(0, 2))).build());
+            Outfit empty = entityManager.persist(Outfit.builder().user(user).name("Empty").build());
+            fullOutfitId = full.getId();
+            emptyOutfitId = empty.getId();
+            entityManager.persist(OutfitHistory.builder().outfit(full).wornOn(LocalDate.of(2025, 3, 2)).build());
+            entityManager.persist(OutfitHistory.builder().outfit(full).wornOn(LocalDate.of(2025, 3, 1)).build());
+
+            Outfit foreign = entityManager.persist(Outfit.builder().user(other).name("Foreign")
+                    .items(new ArrayList<>(List.of(entityManager.persist(item(other, "tops"))))).build());
+            entityManager.persist(OutfitHistory.builder().outfit(foreign).wornOn(LocalDate.of(2025, 3, 1)).build());
+        });
+    }
+
+    @Test
+    void endpointWritesOneJsonObjectPerLineBySection() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ExportController(exportService)).build();
+
+        MvcResult started = mockMvc.perform(get("/api/export/user/{userId}", userId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"wardrobe-" + userId + ".ndjson\""))
+                .andReturn();
+
+        List<JsonNode> lines = parse(result.getResponse().getContentAsString());
+
+        assertThat(lines).extracting(line -> line.get("type").asText()).containsExactly(
+                "clothingItem", "clothingItem", "clothingItem", "outfit", "outfit", "history", "history");
+        assertThat(lines.subList(0, 3)).extracting(line -> UUID.fromString(line.get("data").get("id").asText()))
+                .containsExactlyElementsOf(itemIds);
+        assertThat(lines.subList(0, 3)).extracting(line -> line.get("data").get("userId").asText())
+                .containsOnly(userId.toString());
+
+        JsonNode full = outfit(lines, fullOutfitId);
+        assertThat(full.get("name").asText()).isEqualTo("Full");
+        assertThat(full.get("itemIds")).hasSize(2);
+        assertThat(outfit(lines, emptyOutfitId).get("itemIds")).isEmpty();
+
+        assertThat(lines.subList(5, 7)).extracting(line -> line.get("data").get("wornOn").asText())
+                .containsExactly("2025-03-01", "2025-03-02");
+        assertThat(lines.subList(5, 7)).extracting(line -> line.get("data").get("outfitId").asText())
+                .containsOnly(fullOutfitId.toString());
+    }
+
+    @Test
+    void exportReadsEverySectionInOneReadOnlyTransaction() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        RecordingOutputStream out = new RecordingOutputStream();
+
+        exportService.export(userId, out);
+
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3); // one cursor per section
+        assertThat(out.writesOutsideReadOnlyTransaction).isZero();
+        assertThat(out.transactions).hasSize(1);
+        assertThat(parse(out.toString(StandardCharsets.UTF_8))).hasSize(7);
+    }
+
+    private List<JsonNode> parse(String body) throws Exception {
+        assertThat(body).endsWith("\n").doesNotContain("\n\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static JsonNode outfit(List<JsonNode> lines, UUID id) {
+        return lines.stream()
+                .filter(line -> line.get("type").asText().equals("outfit"))
+                .map(line -> line.get("data"))
+                .filter(data -> data.get("id").asText().equals(id.toString()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static User user(String name) {
+        return User.builder()
+                .username(name)
+                .email(name + "-" + UUID.randomUUID() + "@example.com")
+                .password("x")
+                .build();
+    }
+
+    private static ClothingItem item(User user, String category) {
+        return ClothingItem.builder()
+                .user(user)
+                .name(category)
+                .category(category)
+                .imagePath("/images/" + category + ".png")
+                .build();
+    }
+
+    /** Notes which transaction, if any, each write to the export stream happens in. */
+    private final class RecordingOutputStream extends ByteArrayOutputStream {
+        final Set<Object> transactions = new HashSet<>();
+        int writesOutsideReadOnlyTransaction;
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()
+                    || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                writesOutsideReadOnlyTransaction++;
+            }
+            transactions.add(TransactionSynchronizationManager.getResource(entityManagerFactory));
+            super.write(b, off, len);
+        }
+    }
+}
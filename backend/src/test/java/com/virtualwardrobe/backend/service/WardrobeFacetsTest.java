@@ -0,0 +1,94 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WardrobeFacetsTest {
+
+    private static final List<String> CATEGORIES = List.of("tops", "bottoms", "shoes", "outerwear");
+    private static final List<String> COLOURS = List.of("Black", "white", "navy", "red", "green");
+    private static final List<String> SEASONS = List.of("summer", "winter", "all");
+
+    @Test
+    void matchesAndCountsAgreeWithAScan() {
+        Random random = new Random(7);
+        List<ClothingItem> items = IntStream.range(0, 5_000).mapToObj(i -> ClothingItem.builder()
+                .category(CATEGORIES.get(random.nextInt(CATEGORIES.size())))
+                .colour(random.nextInt(10) == 0 ? null : COLOURS.get(random.nextInt(COLOURS.size())))
+                .season(SEASONS.get(random.nextInt(SEASONS.size())))
+                .brand("Brand" + random.nextInt(40))
+                .build()).toList();
+        WardrobeFacets facets = new WardrobeFacets(items.stream().map(WardrobeItem::from).toList());
+
+        // No filter counts whole bitmaps, few candidates per value exercise the column scan, and every
+        // colour (all items but those without one) the bitmap intersections
+        List<Map<String, List<String>>> queries = List.of(
+                Map.of(),
+                Map.of("colour", COLOURS),
+                Map.of("category", List.of("tops", "shoes"), "colour", List.of("BLACK")),
+                Map.of("season", List.of("winter"), "brand", List.of("brand3", "brand17")),
+                Map.of("category", List.of("tops"), "colour", List.of("red"), "season", List.of("summer"),
+                        "brand", List.of("brand5")));
+        for (Map<String, List<String>> query : queries) {
+            WardrobeFacets.Result result = facets.search(query);
+
+            int[] expected = IntStream.range(0, items.size())
+                    .filter(row -> matches(items.get(row), query, null))
+                    .toArray();
+            assertThat(result.rows()).containsExactly(expected);
+
+            for (String facet : WardrobeFacets.FACETS) {
+                Map<String, Integer> expectedCounts = new TreeMap<>();
+                for (ClothingItem item : items) {
+                    String value = key(item, facet);
+                    if (value != null) {
+                        expectedCounts.merge(value, matches(item, query, facet) ? 1 : 0, Integer::sum);
+                    }
+                }
+                assertThat(result.counts().get(facet)).containsExactlyEntriesOf(expectedCounts);
+            }
+        }
+    }
+
+    @Test
+    void unknownValuesMatchNothingAndUnknownFacetsAreRejected() {
+        WardrobeFacets facets = new WardrobeFacets(List.of(
+                WardrobeItem.from(ClothingItem.builder().category("tops").colour("black").build())));
+
+        assertThat(facets.search(Map.of("colour", List.of("purple"))).rows()).isEmpty();
+        assertThat(facets.search(Map.of("colour", List.of())).rows()).containsExactly(0);
+        assertThatThrownBy(() -> facets.search(Map.of("size", List.of("m"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static boolean matches(ClothingItem item, Map<String, List<String>> query, String ignored) {
+        for (Map.Entry<String, List<String>> filter : query.entrySet()) {
+            if (filter.getKey().equals(ignored)) {
+                continue;
+            }
+            String value = key(item, filter.getKey());
+            boolean any = filter.getValue().stream()
+                    .anyMatch(selected -> selected.equalsIgnoreCase(value));
+            if (!any) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(ClothingItem item, String facet) {
+        String value = switch (facet) {
+            case "category" -> item.getCategory();
+            case "colour" -> item.getColour();
+            case "season" -> item.getSeason();
+            default -> item.getBrand();
+        };
+        return value == null || facet.equals("category") ? value : value.toLowerCase(Locale.ROOT);
+    }
+}
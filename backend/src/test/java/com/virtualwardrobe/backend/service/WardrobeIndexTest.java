@@ -0,0 +1,196 @@
+package com.virtualwardrobe.backend.service;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.ai.ItemFeatureEncoder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WardrobeIndexTest {
+
+    private final Map<UUID, List<ClothingItem>> database = new HashMap<>();
+    private ClothingItemRepository repository;
+    private WardrobeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ClothingItemRepository.class);
+        when(repository.findAllByUserId(any())).thenAnswer(invocation ->
+                database.getOrDefault(invocation.<UUID>getArgument(0), List.of()));
+        index = index(100, Long.MAX_VALUE);
+    }
+
+    @Test
+    void cachesLoadsAndCountsHitsAndMisses() {
+        UUID user = user(3);
+
+        UserWardrobe first = index.get(user);
+        UserWardrobe second = index.get(user);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.size()).isEqualTo(3);
+        verify(repository, times(1)).findAllByUserId(user);
+        assertThat(index.stats().hits()).isEqualTo(1);
+        assertThat(index.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUserOverUserLimit() {
+        index = index(2, Long.MAX_VALUE);
+        UUID a = user(1);
+        UUID b = user(1);
+        UUID c = user(1);
+
+        index.get(a);
+        index.get(b);
+        index.get(a); // a is now more recent than b
+        index.get(c);
+
+        assertThat(index.stats().users()).isEqualTo(2);
+        assertThat(index.stats().evictions()).isEqualTo(1);
+        index.get(a);
+        verify(repository, times(1)).findAllByUserId(a);
+        index.get(b);
+        verify(repository, times(2)).findAllByUserId(b);
+    }
+
+    @Test
+    void tracksEstimatedBytesAndEvictsOverByteLimit() {
+        UUID small = user(2);
+        UUID large = user(40);
+        long smallBytes = index.get(small).estimatedBytes();
+        long largeBytes = index.get(large).estimatedBytes();
+        assertThat(largeBytes).isGreaterThan(smallBytes);
+        assertThat(index.stats().estimatedBytes()).isEqualTo(smallBytes + largeBytes);
+
+        index.invalidate(small);
+        assertThat(index.stats().estimatedBytes()).isEqualTo(largeBytes);
+
+        // Room for the large wardrobe and one more small one, not two
+        index = index(100, largeBytes + smallBytes);
+        UUID other = user(2);
+        index.get(large);
+        index.get(small);
+        index.get(other);
+
+        assertThat(index.stats().evictions()).isEqualTo(1);
+        assertThat(index.stats().users()).isEqualTo(2);
+        assertThat(index.stats().estimatedBytes()).isEqualTo(smallBytes * 2);
+        assertThat(index.stats().estimatedBytes()).isLessThanOrEqualTo(largeBytes + smallBytes);
+    }
+
+    @Test
+    void keepsAWardrobeLargerThanTheByteLimitUntilAnotherUserNeedsRoom() {
+        UUID large = user(40);
+        index = index(100, 1);
+
+        assertThat(index.get(large).size()).isEqualTo(40);
+        assertThat(index.stats().users()).isEqualTo(1);
+
+        index.get(user(1));
+        assertThat(index.stats().users()).isEqualTo(1);
+        assertThat(index.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void patchesCachedWardrobeOnSaveAndDelete() {
+        UUID user = user(2);
+        UserWardrobe before = index.get(user);
+        long bytesBefore = index.stats().estimatedBytes();
+
+        ClothingItem added = item(user, "tops", "summer", "red");
+        index.onSaved(user, added);
+        UserWardrobe afterAdd = index.get(user);
+
+        assertThat(afterAdd).isNotSameAs(before);
+        assertThat(before.size()).isEqualTo(2);
+        assertThat(afterAdd.items()).extracting(WardrobeItem::getId).endsWith(added.getId());
+        assertThat(afterAdd.categoryRows("tops")).contains(2);
+        assertThat(index.stats().estimatedBytes()).isEqualTo(afterAdd.estimatedBytes()).isGreaterThan(bytesBefore);
+
+        added.setCategory("bottoms");
+        index.onSaved(user, added);
+        UserWardrobe afterUpdate = index.get(user);
+
+        assertThat(afterUpdate.size()).isEqualTo(3);
+        assertThat(afterUpdate.items().get(2).getCategory()).isEqualTo("bottoms");
+        assertThat(afterUpdate.categoryRows("tops")).doesNotContain(2);
+        assertThat(afterUpdate.categoryRows("bottoms")).contains(2);
+
+        index.onDeleted(user, added.getId());
+        UserWardrobe afterDelete = index.get(user);
+
+        assertThat(afterDelete.items()).extracting(WardrobeItem::getId).doesNotContain(added.getId());
+        assertThat(index.stats().estimatedBytes()).isEqualTo(bytesBefore);
+        verify(repository, times(1)).findAllByUserId(user);
+    }
+
+    @Test
+    void snapshotsAreNotChangedByLaterEntityEdits() {
+        UUID user = user(0);
+        ClothingItem entity = item(user, "tops", "summer", "red");
+        database.put(user, List.of(entity));
+
+        UserWardrobe wardrobe = index.get(user);
+        entity.setCategory("bottoms");
+        entity.setColour("blue");
+
+        WardrobeItem cached = wardrobe.items().get(0);
+        assertThat(cached.getCategory()).isEqualTo("tops");
+        assertThat(cached.getColour()).isEqualTo("red");
+        assertThat(cached.getUserId()).isEqualTo(user);
+        assertThat(wardrobe.categoryRows("tops")).containsExactly(0);
+    }
+
+    @Test
+    void patchesForUncachedUsersAreDropped() {
+        UUID user = user(1);
+
+        index.onSaved(user, item(user, "tops", "summer", "red"));
+        index.onDeleted(user, UUID.randomUUID());
+
+        assertThat(index.stats().users()).isZero();
+        verify(repository, never()).findAllByUserId(user);
+    }
+
+    private WardrobeIndex index(int maxUsers, long maxBytes) {
+        WardrobeIndex created = new WardrobeIndex(repository, new ItemFeatureEncoder());
+        ReflectionTestUtils.setField(created, "maxUsers", maxUsers);
+        ReflectionTestUtils.setField(created, "maxBytes", maxBytes);
+        return created;
+    }
+
+    private UUID user(int items) {
+        UUID userId = UUID.randomUUID();
+        List<ClothingItem> wardrobe = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            wardrobe.add(item(userId, i % 2 == 0 ? "tops" : "bottoms", "summer", "black"));
+        }
+        database.put(userId, wardrobe);
+        return userId;
+    }
+
+    private static ClothingItem item(UUID userId, String category, String season, String colour) {
+        return ClothingItem.builder()
+                .id(UUID.randomUUID())
+                .user(User.builder().id(userId).build())
+                .name(category)
+                .imagePath("img.png")
+                .category(category)
+                .season(season)
+                .colour(colour)
+                .build();
+    }
+}
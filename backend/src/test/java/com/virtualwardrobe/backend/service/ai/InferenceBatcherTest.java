@@ -0,0 +1,149 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InferenceBatcherTest {
+
+    private static final int WIDTH = 3;
+
+    private final StubModel model = new StubModel();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private InferenceBatcher batcher;
+
+    @AfterEach
+    void tearDown() {
+        model.gate.countDown();
+        callers.shutdownNow();
+        if (batcher != null) {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void fullBatchesAreDispatchedWithoutWaiting() throws Exception {
+        start(4, 5_000_000, 5_000); // a 5 s wait that only a full batch can cut short
+
+        long started = System.nanoTime();
+        List<Future<float[]>> results = submitConcurrently(8);
+        for (int i = 0; i < results.size(); i++) {
+            float[] output = results.get(i).get(2, TimeUnit.SECONDS);
+            assertThat(output).containsExactly(i * WIDTH, 4); // own row, computed in a batch of 4
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2_000);
+        assertThat(model.batchRows).containsExactly(4, 4);
+        assertThat(batcher.batchSizeHistogram()[4]).isEqualTo(2);
+    }
+
+    @Test
+    void partialBatchesAreDispatchedAfterTheWait() throws Exception {
+        start(32, 100_000, 5_000);
+
+        long started = System.nanoTime();
+        List<Future<float[]>> results = submitConcurrently(3);
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).get(2, TimeUnit.SECONDS)[0]).isEqualTo(i * WIDTH);
+        }
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(90);
+        assertThat(model.batchRows.stream().mapToInt(Integer::intValue).sum()).isEqualTo(3);
+        assertThat(model.batchRows.size()).isLessThan(3); // at least two of the three were coalesced
+    }
+
+    @Test
+    void timedOutRequestsAreWithdrawnAndNeverRun() throws Exception {
+        model.gate = new CountDownLatch(1);
+        start(1, 0, 100);
+
+        Future<float[]> first = callers.submit(() -> batcher.infer(row(0), 1));
+        model.entered.await(2, TimeUnit.SECONDS); // the dispatcher is now stuck in the model
+
+        assertThatThrownBy(() -> batcher.infer(row(1), 1)).isInstanceOf(TimeoutException.class);
+        assertThat(batcher.queueDepth()).isZero();
+
+        // Still gated, so the first caller gives up too however late its wait started
+        assertThatThrownBy(() -> first.get(2, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        model.gate.countDown();
+        Thread.sleep(200); // give the dispatcher a chance to pick up anything left behind
+        assertThat(model.batchRows).containsExactly(1);
+    }
+
+    private void start(int maxBatchSize, long maxWaitMicros, long timeoutMs) {
+        batcher = new InferenceBatcher(model, new Bulkheads(10, 8, 64, 5_000));
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(batcher, "maxWaitMicros", maxWaitMicros);
+        ReflectionTestUtils.setField(batcher, "queueDepth", 64);
+        ReflectionTestUtils.setField(batcher, "timeoutMs", timeoutMs);
+        batcher.start();
+    }
+
+    private List<Future<float[]>> submitConcurrently(int count) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(count);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<float[]>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] features = row(i);
+            results.add(callers.submit(() -> {
+                ready.countDown();
+                go.await();
+                return batcher.infer(features, 1);
+            }));
+        }
+        ready.await();
+        go.countDown();
+        return results;
+    }
+
+    /** One row whose features sum to {@code i * WIDTH}. */
+    private static float[] row(int i) {
+        float[] features = new float[WIDTH];
+        java.util.Arrays.fill(features, i);
+        return features;
+    }
+
+    /** Outputs, per row, the sum of its features and the size of the batch it ran in. */
+    private static final class StubModel extends OnnxService {
+        final List<Integer> batchRows = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        StubModel() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int runBatch(float[] input, int rows, int features, IntFunction<float[]> outputFor) throws Exception {
+            float[] output = outputFor.apply(rows * 2);
+            batchRows.add(rows);
+            entered.countDown();
+            gate.await();
+            for (int r = 0; r < rows; r++) {
+                float sum = 0;
+                for (int f = 0; f < features; f++) {
+                    sum += input[r * features + f];
+                }
+                output[r * 2] = sum;
+                output[r * 2 + 1] = rows;
+            }
+            return 2;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemFeatureEncoderTest {
+
+    private final ItemFeatureEncoder encoder = new ItemFeatureEncoder();
+
+    @Test
+    void layoutMatchesTheFittedPythonEncoders() {
+        // OneHotEncoder.categories_ over clothing_items.csv read with header=None: sorted, case-sensitive
+        // and including the header row's "category" and "season"
+        assertThat(ItemFeatureEncoder.CATEGORIES).containsExactly("bottoms", "category", "tops");
+        assertThat(ItemFeatureEncoder.SEASONS).containsExactly("Summer", "Winter", "season", "summer");
+        assertThat(ItemFeatureEncoder.FEATURES).isEqualTo(3 + 4 + 3);
+    }
+
+    @Test
+    void encodesOneHotCategoryAndSeasonThenRgb() {
+        assertThat(encode("tops", "Summer", "red")).containsExactly(
+                0, 0, 1,
+                1, 0, 0, 0,
+                1, 0, 0);
+        assertThat(encode("bottoms", "summer", "Black")).containsExactly(
+                1, 0, 0,
+                0, 0, 0, 1,
+                0, 0, 0);
+        assertThat(encode("bottoms", "Winter", "PINK")).containsExactly(
+                1, 0, 0,
+                0, 1, 0, 0,
+                1, 0.75f, 0.8f);
+        assertThat(encode("category", "season", "colour")).containsExactly(
+                0, 1, 0,
+                0, 0, 1, 0,
+                0.5f, 0.5f, 0.5f);
+    }
+
+    @Test
+    void valuesOutsideTheVocabulariesEncodeAsZerosAndGrey() {
+        // Matching is case-sensitive like the fitted encoders, so "Tops" and "winter" are unknown
+        assertThat(encode("Tops", "winter", "teal")).containsExactly(
+                0, 0, 0,
+                0, 0, 0, 0,
+                0.5f, 0.5f, 0.5f);
+        assertThat(encode("shoes", null, null)).containsExactly(
+                0, 0, 0,
+                0, 0, 0, 0,
+                0.5f, 0.5f, 0.5f);
+    }
+
+    @Test
+    void encodeAllPacksRowsInOrderAndOverwritesWholeSlots() {
+        List<ClothingItem> items = List.of(
+                item("tops", "Summer", "red"),
+                item("bottoms", "summer", "blue"),
+                item("shoes", null, null));
+
+        WardrobeFeatures features = encoder.encodeAll(items);
+
+        assertThat(features.size()).isEqualTo(3);
+        assertThat(features.items()).extracting(WardrobeItem::getId)
+                .containsExactly(items.get(0).getId(), items.get(1).getId(), items.get(2).getId());
+        for (int row = 0; row < items.size(); row++) {
+            int offset = features.offset(row);
+            assertThat(Arrays.copyOfRange(features.matrix(), offset, offset + ItemFeatureEncoder.FEATURES))
+                    .containsExactly(encoder.encode(WardrobeItem.from(items.get(row))));
+        }
+
+        float[] dst = new float[ItemFeatureEncoder.FEATURES + 2];
+        Arrays.fill(dst, 9f);
+        encoder.encode(WardrobeItem.from(items.get(0)), dst, 1);
+        assertThat(dst[0]).isEqualTo(9f);
+        assertThat(Arrays.copyOfRange(dst, 1, 1 + ItemFeatureEncoder.FEATURES))
+                .containsExactly(encode("tops", "Summer", "red"));
+        assertThat(dst[dst.length - 1]).isEqualTo(9f);
+    }
+
+    private float[] encode(String category, String season, String colour) {
+        return encoder.encode(WardrobeItem.from(item(category, season, colour)));
+    }
+
+    private static ClothingItem item(String category, String season, String colour) {
+        return ClothingItem.builder()
+                .id(UUID.randomUUID())
+                .category(category)
+                .season(season)
+                .colour(colour)
+                .build();
+    }
+}
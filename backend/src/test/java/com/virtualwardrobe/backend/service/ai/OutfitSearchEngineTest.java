@@ -0,0 +1,237 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class OutfitSearchEngineTest {
+
+    private static final int FEATURES = ItemFeatureEncoder.FEATURES;
+    private static final ItemFeatureEncoder ENCODER = new ItemFeatureEncoder();
+
+    private final Map<UUID, List<ClothingItem>> database = new HashMap<>();
+    private InferenceBatcher inferenceBatcher;
+    private WardrobeIndex index;
+    private OutfitSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        ClothingItemRepository repository = mock(ClothingItemRepository.class);
+        when(repository.findAllByUserId(any())).thenAnswer(invocation ->
+                database.getOrDefault(invocation.<UUID>getArgument(0), List.of()));
+        index = new WardrobeIndex(repository, ENCODER);
+        inferenceBatcher = mock(InferenceBatcher.class);
+        engine = engine(64, 20_000, 2);
+    }
+
+    @Test
+    void returnsTheTopKOutfitsBestFirst() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "green"), item("tops", "blue"),
+                item("bottoms", "black"), item("bottoms", "white"), item("bottoms", "yellow"),
+                item("shoes", "purple"), item("shoes", "orange"));
+        predict("green", "white");
+
+        List<OutfitSearchEngine.ScoredOutfit> all = engine.search(wardrobe, 100);
+        List<OutfitSearchEngine.ScoredOutfit> top3 = engine.search(wardrobe, 3);
+
+        // Every top x bottom x pair of shoes fits in the beam, in category order
+        assertThat(all).hasSize(18);
+        assertThat(all).extracting(outfit -> categories(outfit.items()))
+                .containsOnly(List.of("tops", "bottoms", "shoes"));
+        assertThat(all.stream().map(outfit -> colours(outfit.items())).distinct()).hasSize(18);
+        assertThat(all).extracting(OutfitSearchEngine.ScoredOutfit::score)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+        assertThat(colours(all.get(0).items()).subList(0, 2)).containsExactly("green", "white");
+
+        assertThat(top3).isEqualTo(all.subList(0, 3));
+        assertThat(engine.search(wardrobe, 0)).isEmpty();
+    }
+
+    @Test
+    void withoutModelOutputTheHeuristicStillRanks() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "blue"), item("bottoms", "black"), item("bottoms", "white"));
+        when(inferenceBatcher.infer(any(), anyInt())).thenReturn(null);
+
+        List<OutfitSearchEngine.ScoredOutfit> outfits = engine.search(wardrobe, 10);
+
+        assertThat(outfits).hasSize(4);
+        assertThat(outfits).extracting(OutfitSearchEngine.ScoredOutfit::score)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void candidateBudgetFinishesPartialOutfitsWithTheBestItemPerCategory() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "green"), item("tops", "blue"),
+                item("bottoms", "black"), item("bottoms", "white"), item("bottoms", "yellow"),
+                item("shoes", "purple"), item("shoes", "orange"));
+        predict("green", "white");
+        engine = engine(64, 1, 2);
+
+        List<OutfitSearchEngine.ScoredOutfit> outfits = engine.search(wardrobe, 100);
+
+        // Tops were expanded before the budget ran out, everything after got its single best item
+        assertThat(outfits).hasSize(3);
+        assertThat(outfits.stream().map(outfit -> outfit.items().get(0).getColour()))
+                .containsExactlyInAnyOrder("red", "green", "blue");
+        assertThat(outfits).extracting(outfit -> outfit.items().subList(1, 3))
+                .containsOnly(outfits.get(0).items().subList(1, 3));
+        assertThat(outfits.get(0).items().get(1).getColour()).isEqualTo("white");
+        verify(inferenceBatcher).infer(any(), eq(3));
+    }
+
+    @Test
+    void beamWidthCapsTheCandidates() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "green"), item("tops", "blue"),
+                item("bottoms", "black"), item("bottoms", "white"), item("bottoms", "yellow"));
+        predict("green", "white");
+        engine = engine(4, 20_000, 2);
+
+        List<OutfitSearchEngine.ScoredOutfit> outfits = engine.search(wardrobe, 100);
+
+        assertThat(outfits).hasSize(4);
+        assertThat(colours(outfits.get(0).items())).containsExactly("green", "white");
+    }
+
+    @Test
+    void emptyCategoriesAreSkipped() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "blue"),
+                item("shoes", "purple"), item("shoes", "orange"),
+                item("hats", "black"));
+        predict("red", "white");
+
+        List<OutfitSearchEngine.ScoredOutfit> outfits = engine.search(wardrobe, 100);
+
+        assertThat(outfits).hasSize(4);
+        assertThat(outfits).extracting(outfit -> categories(outfit.items()))
+                .containsOnly(List.of("tops", "shoes"));
+    }
+
+    @Test
+    void nothingToCombineReturnsNoOutfits() throws Exception {
+        predict("red", "white");
+
+        assertThat(engine.search(wardrobe(), 5)).isEmpty();
+        verifyNoInteractions(inferenceBatcher);
+
+        UserWardrobe uncategorised = wardrobe(item("hats", "black"), item("scarves", "red"));
+        assertThat(engine.search(uncategorised, 5)).isEmpty();
+        UserWardrobe summer = wardrobe(item("tops", "red"), item("bottoms", "white"));
+        assertThat(engine.search(summer, 5, "winter")).isEmpty();
+        // Only the wardrobe profile went through the model, never a candidate
+        verify(inferenceBatcher, times(2)).infer(any(), eq(1));
+        verifyNoMoreInteractions(inferenceBatcher);
+    }
+
+    @Test
+    void progressiveSearchReportsOnlyImprovementsAndEndsWithTheBest() throws Exception {
+        UserWardrobe wardrobe = wardrobe(
+                item("tops", "red"), item("tops", "green"), item("tops", "blue"),
+                item("bottoms", "black"), item("bottoms", "white"), item("bottoms", "yellow"),
+                item("shoes", "purple"), item("shoes", "orange"));
+        // The beam is steered towards green and white, but the scoring calls prefer blue and yellow,
+        // so the greedy outfit and the first chunks are beaten by later ones
+        float[] profileTargets = targets("green", "white");
+        float[] scoringTargets = targets("blue", "yellow");
+        AtomicInteger calls = new AtomicInteger();
+        when(inferenceBatcher.infer(any(), anyInt())).thenAnswer(invocation ->
+                repeat(calls.getAndIncrement() == 0 ? profileTargets : scoringTargets, invocation.getArgument(1)));
+
+        List<OutfitSearchEngine.ScoredOutfit> reported = new ArrayList<>();
+        List<OutfitSearchEngine.ScoredOutfit> outfits = engine.search(wardrobe, 5, null, reported::add);
+
+        assertThat(reported.size()).isGreaterThan(1);
+        assertThat(colours(reported.get(0).items()).subList(0, 2)).containsExactly("green", "white");
+        for (int i = 1; i < reported.size(); i++) {
+            assertThat(reported.get(i).score()).isGreaterThan(reported.get(i - 1).score());
+        }
+        assertThat(reported.get(reported.size() - 1)).isEqualTo(outfits.get(0));
+        assertThat(colours(outfits.get(0).items()).subList(0, 2)).containsExactly("blue", "yellow");
+        assertThat(outfits).extracting(OutfitSearchEngine.ScoredOutfit::score)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+
+        // Profile, greedy outfit, then 18 candidates in chunks of 2
+        verify(inferenceBatcher, times(2)).infer(any(), eq(1));
+        verify(inferenceBatcher, times(9)).infer(any(), eq(2));
+    }
+
+    private OutfitSearchEngine engine(int beamWidth, int candidateBudget, int progressiveChunk) {
+        OutfitSearchEngine created = new OutfitSearchEngine(inferenceBatcher);
+        ReflectionTestUtils.setField(created, "defaultTopK", 5);
+        ReflectionTestUtils.setField(created, "beamWidth", beamWidth);
+        ReflectionTestUtils.setField(created, "candidateBudget", candidateBudget);
+        ReflectionTestUtils.setField(created, "timeBudgetMs", 60_000L); // never the limit here
+        ReflectionTestUtils.setField(created, "progressiveChunk", progressiveChunk);
+        return created;
+    }
+
+    /** Makes the model predict the given top and bottom colours for every input row. */
+    private void predict(String topColour, String bottomColour) throws Exception {
+        float[] targets = targets(topColour, bottomColour);
+        when(inferenceBatcher.infer(any(), anyInt()))
+                .thenAnswer(invocation -> repeat(targets, invocation.getArgument(1)));
+    }
+
+    /** One model output row: the features of a summer top and bottom in these colours. */
+    private static float[] targets(String topColour, String bottomColour) {
+        float[] targets = new float[2 * FEATURES];
+        ENCODER.encode(WardrobeItem.from(item("tops", topColour)), targets, 0);
+        ENCODER.encode(WardrobeItem.from(item("bottoms", bottomColour)), targets, FEATURES);
+        return targets;
+    }
+
+    private static float[] repeat(float[] row, int rows) {
+        float[] output = new float[rows * row.length];
+        for (int r = 0; r < rows; r++) {
+            System.arraycopy(row, 0, output, r * row.length, row.length);
+        }
+        return output;
+    }
+
+    private UserWardrobe wardrobe(ClothingItem... items) {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).build();
+        for (ClothingItem item : items) {
+            item.setUser(user);
+        }
+        database.put(userId, List.of(items));
+        return index.peek(userId);
+    }
+
+    private static ClothingItem item(String category, String colour) {
+        return ClothingItem.builder()
+                .id(UUID.randomUUID())
+                .name(colour + " " + category)
+                .category(category)
+                .season("summer")
+                .colour(colour)
+                .build();
+    }
+
+    private static List<String> categories(List<WardrobeItem> items) {
+        return items.stream().map(WardrobeItem::getCategory).toList();
+    }
+
+    private static List<String> colours(List<WardrobeItem> items) {
+        return items.stream().map(WardrobeItem::getColour).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.virtualwardrobe.backend.controller.AiController;
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.WardrobeVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OutfitSuggestionServiceTest {
+
+    private final GatedModel model = new GatedModel();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final UUID userId = UUID.randomUUID();
+    private InferenceBatcher batcher;
+    private OutfitSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new InferenceBatcher(model, new Bulkheads(10, 8, 64, 5_000));
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 1);
+        ReflectionTestUtils.setField(batcher, "maxWaitMicros", 0L);
+        ReflectionTestUtils.setField(batcher, "queueDepth", 1);
+        ReflectionTestUtils.setField(batcher, "timeoutMs", 5_000L);
+        batcher.start();
+
+        ClothingItemRepository repository = mock(ClothingItemRepository.class);
+        when(repository.findAllByUserId(userId)).thenReturn(List.of(
+                ClothingItem.builder().id(UUID.randomUUID()).category("tops").colour("red").build(),
+                ClothingItem.builder().id(UUID.randomUUID()).category("bottoms").colour("blue").build()));
+        OutfitSearchEngine engine = new OutfitSearchEngine(batcher);
+        ReflectionTestUtils.setField(engine, "defaultTopK", 5);
+        ReflectionTestUtils.setField(engine, "beamWidth", 64);
+        ReflectionTestUtils.setField(engine, "candidateBudget", 20_000);
+        ReflectionTestUtils.setField(engine, "timeBudgetMs", 60_000L);
+        ReflectionTestUtils.setField(engine, "progressiveChunk", 8);
+
+        SuggestionCache suggestionCache = mock(SuggestionCache.class);
+        when(suggestionCache.cached(any(), anyLong(), any())).thenReturn(null);
+        when(suggestionCache.load(any(), anyLong(), any())).thenReturn(null);
+        service = new OutfitSuggestionService(engine, new WardrobeIndex(repository, new ItemFeatureEncoder()),
+                mock(WardrobeVersionService.class), suggestionCache, model);
+    }
+
+    @AfterEach
+    void tearDown() {
+        model.gate.countDown();
+        callers.shutdownNow();
+        batcher.stop();
+    }
+
+    @Test
+    void fullInferenceQueueIsReportedAsServiceUnavailable() throws Exception {
+        // One request stuck in the model and one waiting behind it fill the queue of depth 1
+        callers.submit(() -> batcher.infer(new float[]{0}, 1));
+        assertThat(model.entered.await(2, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> batcher.infer(new float[]{1}, 1));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (batcher.queueDepth() < 1) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> service.suggestOutfits(userId, 5))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AiController(
+                service, mock(SuggestionStreamService.class), mock(ComplementService.class))).build();
+        mockMvc.perform(get("/api/ai/suggest-outfits/{userId}", userId))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(get("/api/ai/suggest-outfit/{userId}", userId))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void otherFailuresStillDegradeToNoSuggestions() throws Exception {
+        model.failure = new IllegalStateException("model output has the wrong shape");
+
+        assertThat(service.suggestOutfits(userId, 5)).isEmpty();
+        assertThat(service.suggestOutfit(userId)).isEmpty();
+    }
+
+    /** A loaded model whose batches wait on {@link #gate}, or fail with {@link #failure} if set. */
+    private static final class GatedModel extends OnnxService {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        volatile Exception failure;
+
+        GatedModel() {
+            super(new SimpleMeterRegistry());
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int runBatch(float[] input, int rows, int features, IntFunction<float[]> outputFor) throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+            entered.countDown();
+            gate.await();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.model.ClothingItem;
+import com.virtualwardrobe.backend.model.User;
+import com.virtualwardrobe.backend.repository.ClothingItemRepository;
+import com.virtualwardrobe.backend.service.UserWardrobe;
+import com.virtualwardrobe.backend.service.WardrobeChangedEvent;
+import com.virtualwardrobe.backend.service.WardrobeIndex;
+import com.virtualwardrobe.backend.service.WardrobeItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionCacheTest {
+
+    private static final String CONTEXT = "size=2";
+
+    private final Map<UUID, List<ClothingItem>> database = new HashMap<>();
+    private final List<SuggestionCache> caches = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private WardrobeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:suggestion-cache-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute("CREATE TABLE clothing_items (id UUID PRIMARY KEY, user_id UUID NOT NULL, category TEXT)");
+        jdbcTemplate.execute("""
+                CREATE TABLE outfits_suggestions (
+                    id UUID PRIMARY KEY, user_id UUID NOT NULL, wardrobe_version BIGINT NOT NULL, context TEXT NOT NULL)
+                """);
+        jdbcTemplate.execute("""
+                CREATE UNIQUE INDEX idx_outfits_suggestions_key ON outfits_suggestions (user_id, wardrobe_version, context)
+                """);
+        jdbcTemplate.execute("""
+                CREATE TABLE suggested_outfit (
+                    id UUID DEFAULT RANDOM_UUID() PRIMARY KEY,
+                    ai_suggestion_id UUID NOT NULL REFERENCES outfits_suggestions(id) ON DELETE CASCADE,
+                    clothing_items_id UUID NOT NULL REFERENCES clothing_items(id) ON DELETE CASCADE,
+                    type TEXT NOT NULL, outfit_rank INT NOT NULL, item_position INT NOT NULL,
+                    score DOUBLE PRECISION NOT NULL)
+                """);
+
+        ClothingItemRepository repository = mock(ClothingItemRepository.class);
+        when(repository.findAllByUserId(any())).thenAnswer(invocation ->
+                database.getOrDefault(invocation.<UUID>getArgument(0), List.of()));
+        index = new WardrobeIndex(repository, new ItemFeatureEncoder());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (SuggestionCache cache : caches) {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void writtenResultsLoadBackInRankAndPositionOrder() {
+        UserWardrobe wardrobe = wardrobe(4);
+        List<OutfitSearchEngine.ScoredOutfit> outfits = outfits(wardrobe);
+        SuggestionCache writer = cache();
+        SimpleMeterRegistry writerMetrics = metrics(writer);
+
+        writer.put(wardrobe.userId(), 1, CONTEXT, outfits);
+        awaitCount(writerMetrics, "wardrobe.suggestions.cache.writes", 1);
+
+        // A fresh cache, as after a restart or on another instance, has only the database
+        SuggestionCache reader = cache();
+        SimpleMeterRegistry readerMetrics = metrics(reader);
+        assertThat(reader.cached(wardrobe.userId(), 1, CONTEXT)).isNull();
+
+        assertThat(reader.load(wardrobe, 1, CONTEXT)).isEqualTo(outfits);
+        assertThat(reader.cached(wardrobe.userId(), 1, CONTEXT)).isEqualTo(outfits);
+        assertThat(reader.load(wardrobe, 2, CONTEXT)).isNull();
+        assertThat(reader.load(wardrobe, 1, "size=3")).isNull();
+        assertThat(count(readerMetrics, "wardrobe.suggestions.cache.hits", "database")).isEqualTo(1);
+        assertThat(count(readerMetrics, "wardrobe.suggestions.cache.hits", "memory")).isEqualTo(1);
+        assertThat(count(readerMetrics, "wardrobe.suggestions.cache.misses", null)).isEqualTo(2);
+    }
+
+    @Test
+    void emptyResultsAreStoredToo() {
+        UserWardrobe wardrobe = wardrobe(1);
+        SuggestionCache cache = cache();
+        SimpleMeterRegistry metrics = metrics(cache);
+
+        cache.put(wardrobe.userId(), 1, CONTEXT, List.of());
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes", 1);
+
+        assertThat(cache().load(wardrobe, 1, CONTEXT)).isEmpty();
+    }
+
+    @Test
+    void writingANewerVersionDeletesTheUsersOlderRows() {
+        UserWardrobe wardrobe = wardrobe(4);
+        UserWardrobe other = wardrobe(2);
+        SuggestionCache cache = cache();
+        SimpleMeterRegistry metrics = metrics(cache);
+
+        cache.put(wardrobe.userId(), 1, CONTEXT, outfits(wardrobe));
+        cache.put(other.userId(), 1, CONTEXT, outfits(other));
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes", 2);
+        cache.put(wardrobe.userId(), 2, CONTEXT, outfits(wardrobe));
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes", 3);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT wardrobe_version FROM outfits_suggestions WHERE user_id = ?", Long.class, wardrobe.userId()))
+                .containsExactly(2L);
+        assertThat(cache().load(other, 1, CONTEXT)).isEqualTo(outfits(other));
+    }
+
+    @Test
+    void storedResultsReferringToAnItemNoLongerInTheWardrobeAreMisses() {
+        UserWardrobe wardrobe = wardrobe(4);
+        SuggestionCache cache = cache();
+        SimpleMeterRegistry metrics = metrics(cache);
+        cache.put(wardrobe.userId(), 1, CONTEXT, outfits(wardrobe));
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes", 1);
+
+        // The snapshot no longer has the last item, e.g. it was deleted after the result was stored
+        List<ClothingItem> remaining = database.get(wardrobe.userId());
+        database.put(wardrobe.userId(), remaining.subList(0, remaining.size() - 1));
+        UserWardrobe smaller = index.peek(wardrobe.userId());
+
+        SuggestionCache reader = cache();
+        SimpleMeterRegistry readerMetrics = metrics(reader);
+        assertThat(reader.load(smaller, 1, CONTEXT)).isNull();
+        assertThat(reader.cached(wardrobe.userId(), 1, CONTEXT)).isNull();
+        assertThat(count(readerMetrics, "wardrobe.suggestions.cache.misses", null)).isEqualTo(1);
+        assertThat(reader.load(wardrobe, 1, CONTEXT)).isEqualTo(outfits(wardrobe));
+    }
+
+    @Test
+    void wardrobeChangedEventDropsOnlyThatUsersEntries() {
+        UserWardrobe wardrobe = wardrobe(4);
+        UserWardrobe other = wardrobe(2);
+        SuggestionCache cache = cache();
+        cache.put(wardrobe.userId(), 1, CONTEXT, outfits(wardrobe));
+        cache.put(wardrobe.userId(), 1, "size=3", List.of());
+        cache.put(other.userId(), 1, CONTEXT, outfits(other));
+        assertThat(cache.size()).isEqualTo(2);
+
+        cache.onWardrobeChanged(new WardrobeChangedEvent(wardrobe.userId(), 2));
+
+        assertThat(cache.cached(wardrobe.userId(), 1, CONTEXT)).isNull();
+        assertThat(cache.cached(wardrobe.userId(), 1, "size=3")).isNull();
+        assertThat(cache.cached(other.userId(), 1, CONTEXT)).isEqualTo(outfits(other));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void resultsForAnOlderVersionDoNotReplaceNewerOnes() {
+        UserWardrobe wardrobe = wardrobe(4);
+        SuggestionCache cache = cache();
+        cache.put(wardrobe.userId(), 2, CONTEXT, outfits(wardrobe));
+
+        cache.put(wardrobe.userId(), 1, CONTEXT, List.of());
+
+        assertThat(cache.cached(wardrobe.userId(), 2, CONTEXT)).isEqualTo(outfits(wardrobe));
+        assertThat(cache.cached(wardrobe.userId(), 1, CONTEXT)).isNull();
+    }
+
+    @Test
+    void failedBatchesAreCountedAndTheWriterKeepsGoing() {
+        UserWardrobe wardrobe = wardrobe(4);
+        SuggestionCache cache = cache();
+        SimpleMeterRegistry metrics = metrics(cache);
+
+        jdbcTemplate.execute("ALTER TABLE suggested_outfit RENAME TO suggested_outfit_offline");
+        cache.put(wardrobe.userId(), 1, CONTEXT, outfits(wardrobe));
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes.failed", 1);
+        jdbcTemplate.execute("ALTER TABLE suggested_outfit_offline RENAME TO suggested_outfit");
+
+        assertThat(count(metrics, "wardrobe.suggestions.cache.writes", null)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM outfits_suggestions", Long.class))
+                .as("the failed batch is rolled back as a whole").isZero();
+
+        cache.put(wardrobe.userId(), 2, CONTEXT, outfits(wardrobe));
+        awaitCount(metrics, "wardrobe.suggestions.cache.writes", 1);
+        assertThat(cache().load(wardrobe, 2, CONTEXT)).isEqualTo(outfits(wardrobe));
+        assertThat(count(metrics, "wardrobe.suggestions.cache.writes.failed", null)).isEqualTo(1);
+    }
+
+    private SuggestionCache cache() {
+        SuggestionCache cache = new SuggestionCache(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(cache, "maxUsers", 100);
+        ReflectionTestUtils.setField(cache, "maxContextsPerUser", 16);
+        ReflectionTestUtils.setField(cache, "writeQueueDepth", 64);
+        ReflectionTestUtils.setField(cache, "writeBatch", 16);
+        ReflectionTestUtils.setField(cache, "writeIntervalMs", 10L);
+        cache.start();
+        caches.add(cache);
+        return cache;
+    }
+
+    private static SimpleMeterRegistry metrics(SuggestionCache cache) {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        return registry;
+    }
+
+    private static double count(SimpleMeterRegistry registry, String name, String tier) {
+        return (tier == null ? registry.get(name) : registry.get(name).tag("tier", tier)).functionCounter().count();
+    }
+
+    private static void awaitCount(SimpleMeterRegistry registry, String name, double expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(registry, name, null) < expected) {
+            assertThat(System.nanoTime()).as("waiting for " + name).isLessThan(deadline);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    /** Tops at even rows, bottoms at odd ones, stored both for the index and in {@code clothing_items}. */
+    private UserWardrobe wardrobe(int items) {
+        UUID userId = UUID.randomUUID();
+        User user = User.builder().id(userId).build();
+        List<ClothingItem> wardrobe = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            ClothingItem item = ClothingItem.builder()
+                    .id(UUID.randomUUID())
+                    .user(user)
+                    .name("item-" + i)
+                    .category(i % 2 == 0 ? "tops" : "bottoms")
+                    .build();
+            wardrobe.add(item);
+            jdbcTemplate.update("INSERT INTO clothing_items (id, user_id, category) VALUES (?, ?, ?)",
+                    item.getId(), userId, item.getCategory());
+        }
+        database.put(userId, wardrobe);
+        return index.peek(userId);
+    }
+
+    /** Every top paired with the next bottom, best first. */
+    private static List<OutfitSearchEngine.ScoredOutfit> outfits(UserWardrobe wardrobe) {
+        List<WardrobeItem> items = wardrobe.items();
+        List<OutfitSearchEngine.ScoredOutfit> outfits = new ArrayList<>();
+        for (int i = 0; i + 1 < items.size(); i += 2) {
+            outfits.add(new OutfitSearchEngine.ScoredOutfit(List.of(items.get(i), items.get(i + 1)), 0.9 - i * 0.1));
+        }
+        return outfits;
+    }
+}
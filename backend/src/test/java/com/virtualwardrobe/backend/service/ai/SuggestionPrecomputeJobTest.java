@@ -0,0 +1,164 @@
+package com.virtualwardrobe.backend.service.ai;
+
+import com.virtualwardrobe.backend.config.Bulkheads;
+import com.virtualwardrobe.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionPrecomputeJobTest {
+
+    private static final LocalDate RUN_DATE = LocalDate.of(2025, 3, 1);
+
+    // Postgres orders uuids by their unsigned bytes, which is their text order; UUID.compareTo is signed
+    private static final Comparator<UUID> POSTGRES_ORDER = Comparator.comparing(UUID::toString);
+
+    private final List<UUID> userIds = Stream.generate(UUID::randomUUID).limit(5).sorted(POSTGRES_ORDER).toList();
+    private final List<UUID> precomputed = new CopyOnWriteArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:suggestion-runs-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE suggestion_runs (
+                    run_date DATE PRIMARY KEY,
+                    status TEXT NOT NULL,
+                    started_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    finished_at TIMESTAMP WITH TIME ZONE,
+                    locked_until TIMESTAMP WITH TIME ZONE NOT NULL,
+                    last_user_id UUID,
+                    users_processed BIGINT NOT NULL DEFAULT 0,
+                    users_failed BIGINT NOT NULL DEFAULT 0,
+                    active_millis BIGINT NOT NULL DEFAULT 0,
+                    users_per_second DOUBLE PRECISION)
+                """);
+
+        // Same contract as the JPQL query: ids greater than the cursor, in id order, up to the limit
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findIdsAfter(any(), any())).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(1);
+            return userIds.stream().filter(id -> POSTGRES_ORDER.compare(id, after) > 0).limit(limit.max()).toList();
+        });
+    }
+
+    @Test
+    void secondRunResumesAfterTheCheckpointedUser() throws Exception {
+        // The first instance goes down while working on the first page; that page still finishes
+        SuggestionPrecomputeJob crashed = job(userIds.get(0));
+        assertThat(crashed.run(RUN_DATE)).isNull();
+
+        Map<String, Object> checkpoint = row();
+        assertThat(checkpoint.get("status")).isEqualTo("running");
+        assertThat(checkpoint.get("last_user_id")).isEqualTo(userIds.get(1));
+        assertThat(checkpoint.get("users_processed")).isEqualTo(2L);
+        assertThat(precomputed).containsExactlyInAnyOrderElementsOf(userIds.subList(0, 2));
+
+        // While the lease is held no other instance can take the run over
+        SuggestionPrecomputeJob replacement = job(null);
+        assertThat(replacement.run(RUN_DATE)).isNull();
+
+        expireLease();
+        precomputed.clear();
+        SuggestionPrecomputeJob.RunReport report = replacement.run(RUN_DATE);
+
+        assertThat(precomputed).containsExactlyInAnyOrderElementsOf(userIds.subList(2, 5));
+        assertThat(report.status()).isEqualTo("completed");
+        assertThat(report.usersProcessed()).isEqualTo(5);
+        assertThat(report.usersFailed()).isZero();
+        Map<String, Object> finished = row();
+        assertThat(finished.get("status")).isEqualTo("completed");
+        assertThat(finished.get("last_user_id")).isEqualTo(userIds.get(4));
+        assertThat(finished.get("users_processed")).isEqualTo(5L);
+        assertThat(finished.get("finished_at")).isNotNull();
+    }
+
+    @Test
+    void completedRunIsNotClaimedAgain() throws Exception {
+        SuggestionPrecomputeJob job = job(null);
+        assertThat(job.run(RUN_DATE).usersProcessed()).isEqualTo(5);
+        Map<String, Object> completed = row();
+
+        expireLease();
+        precomputed.clear();
+
+        assertThat(job.run(RUN_DATE)).isNull();
+        assertThat(job(null).run(RUN_DATE)).isNull();
+        assertThat(precomputed).isEmpty();
+        assertThat(row()).isEqualTo(completed);
+    }
+
+    @Test
+    void eachDayGetsItsOwnRun() throws Exception {
+        SuggestionPrecomputeJob job = job(null);
+        assertThat(job.run(RUN_DATE)).isNotNull();
+
+        assertThat(job.run(RUN_DATE.plusDays(1)).usersProcessed()).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForList("SELECT status FROM suggestion_runs ORDER BY run_date", String.class))
+                .containsExactly("completed", "completed");
+    }
+
+    /** A job instance that shuts down, as on a redeploy, while pre-computing {@code shutdownOn}. */
+    private SuggestionPrecomputeJob job(UUID shutdownOn) throws Exception {
+        OutfitSuggestionService suggestions = mock(OutfitSuggestionService.class);
+        SuggestionPrecomputeJob job = new SuggestionPrecomputeJob(suggestions, userRepository, jdbcTemplate,
+                new Bulkheads(10, 8, 64, 5_000), new SimpleMeterRegistry());
+        when(suggestions.precompute(any(), anyInt(), anyLong())).thenAnswer(invocation -> {
+            UUID userId = invocation.getArgument(0);
+            if (invocation.<Integer>getArgument(1) == 1) {
+                precomputed.add(userId);
+            }
+            if (userId.equals(shutdownOn)) {
+                job.shutdown(); // the current page finishes, no further page starts
+            }
+            return true;
+        });
+        ReflectionTestUtils.setField(job, "zone", "UTC");
+        ReflectionTestUtils.setField(job, "pageSize", 2);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "sizes", new int[]{1, 5});
+        ReflectionTestUtils.setField(job, "maxUsersPerSecond", 0.0);
+        ReflectionTestUtils.setField(job, "maxDbShare", 1.0);
+        ReflectionTestUtils.setField(job, "leaseMs", 300_000L);
+        ReflectionTestUtils.setField(job, "storeTimeoutMs", 1_000L);
+        return job;
+    }
+
+    private Map<String, Object> row() {
+        return Collections.unmodifiableMap(jdbcTemplate.queryForMap(
+                "SELECT status, last_user_id, users_processed, finished_at FROM suggestion_runs WHERE run_date = ?",
+                RUN_DATE));
+    }
+
+    /** What the claim sees once the instance holding the lease has stopped renewing it. */
+    private void expireLease() {
+        jdbcTemplate.update("UPDATE suggestion_runs SET locked_until = ?",
+                Timestamp.from(Instant.now().minusSeconds(60)));
+    }
+}
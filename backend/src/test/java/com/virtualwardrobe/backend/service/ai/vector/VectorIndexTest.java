@@ -0,0 +1,89 @@
+package com.virtualwardrobe.backend.service.ai.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VectorIndexTest {
+
+    private static final int DIMENSION = 10;
+    private static final int K = 10;
+    private static final IntPredicate EVERY_THIRD_EXCLUDED = row -> row % 3 != 0;
+
+    @Test
+    void flatIndexMatchesBruteForce() {
+        float[] rows = randomUnitVectors(1_003, new Random(1), false);
+        FlatVectorIndex flat = FlatVectorIndex.of(rows, DIMENSION);
+        FlatVectorIndex scalar = FlatVectorIndex.scalar(rows, DIMENSION);
+
+        Random random = new Random(2);
+        for (int q = 0; q < 50; q++) {
+            float[] query = randomUnitVectors(1, random, false);
+            List<VectorIndex.Neighbor> expected = scalar.search(query, K, EVERY_THIRD_EXCLUDED);
+            List<VectorIndex.Neighbor> actual = flat.search(query, K, EVERY_THIRD_EXCLUDED);
+
+            assertThat(actual).hasSize(K);
+            for (int i = 0; i < K; i++) {
+                assertThat(actual.get(i).score()).isCloseTo(expected.get(i).score(), within(1e-4f));
+                assertThat(actual.get(i).row() % 3).isNotZero();
+            }
+        }
+    }
+
+    @Test
+    void hnswRecallAgainstBruteForce() {
+        assertThat(recall(false)).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void hnswRecallWithDuplicateVectors() {
+        // Wardrobes are full of items with identical category, season and colour
+        assertThat(recall(true)).isGreaterThanOrEqualTo(0.95);
+    }
+
+    @Test
+    void emptyIndexesReturnNothing() {
+        assertThat(FlatVectorIndex.of(new float[0], DIMENSION).search(new float[DIMENSION], K, row -> true)).isEmpty();
+        assertThat(HnswVectorIndex.build(new float[0], DIMENSION, 16, 100, 64, 1).search(new float[DIMENSION], K, row -> true))
+                .isEmpty();
+    }
+
+    /** Fraction of returned neighbours scoring at least as high as the exact k-th best (ties count as hits). */
+    private static double recall(boolean duplicates) {
+        float[] rows = randomUnitVectors(5_000, new Random(3), duplicates);
+        HnswVectorIndex hnsw = HnswVectorIndex.build(rows, DIMENSION, 16, 100, 64, 42);
+        FlatVectorIndex exact = FlatVectorIndex.scalar(rows, DIMENSION);
+
+        Random random = new Random(4);
+        int hits = 0;
+        int queries = 100;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomUnitVectors(1, random, false);
+            float kth = exact.search(query, K, EVERY_THIRD_EXCLUDED).get(K - 1).score();
+            List<VectorIndex.Neighbor> found = hnsw.search(query, K, EVERY_THIRD_EXCLUDED);
+            for (VectorIndex.Neighbor neighbor : found) {
+                assertThat(neighbor.row() % 3).isNotZero();
+                if (neighbor.score() >= kth - 1e-6f) {
+                    hits++;
+                }
+            }
+        }
+        return (double) hits / (queries * K);
+    }
+
+    private static float[] randomUnitVectors(int count, Random random, boolean duplicates) {
+        float[] rows = new float[count * DIMENSION];
+        for (int row = 0; row < count; row++) {
+            for (int d = 0; d < DIMENSION; d++) {
+                rows[row * DIMENSION + d] = duplicates ? random.nextInt(2) : (float) random.nextGaussian();
+            }
+            VectorIndex.normalize(rows, row * DIMENSION, DIMENSION);
+        }
+        return rows;
+    }
+}
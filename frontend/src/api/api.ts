@@ -11,6 +11,18 @@ const api = axios.create({
   },
 });
 
+// Bearer token from signup/login; every API call carries it
+export const authHeaders = (): Record<string, string> => {
+  const token = localStorage.getItem("token");
+  return token ? { Authorization: `Bearer ${token}` } : {};
+};
+
+api.interceptors.request.use(config => {
+  const token = localStorage.getItem("token");
+  if (token) config.headers.set("Authorization", `Bearer ${token}`);
+  return config;
+});
+
 // Auth APIs
 export const loginUser = (email: string, password: string) =>
   api.post("/auth/login", { email, password }).then(r => r.data);
@@ -18,6 +30,10 @@ export const loginUser = (email: string, password: string) =>
 export const signupUser = (name: string, email: string, password: string) => 
   api.post("/auth/signup", { username: name, email, password }).then(r => r.data);
 
+// Thumbnails are served relative to the backend origin; fall back to the full image
+export const thumbnailSrc = (item: { imagePath: string; thumbnailUrl?: string }) =>
+  item.thumbnailUrl ? `${API_BASE_URL.replace(/\/api$/, "")}${item.thumbnailUrl}` : item.imagePath;
+
 // Images (multipart)
 export const uploadImage = (file: File) => {
   const form = new FormData();
@@ -37,6 +53,16 @@ export const getUserClothing = (userId: string) =>
 export const deleteClothingItem = (id: string) =>
   api.delete(`/clothing/${id}`).then(r => r.data);
 
+export interface FacetSearchResult {
+  ids: string[];
+  facets: Record<string, Record<string, number>>; // counts per value, ignoring that facet's own filter
+}
+
+// Values within one facet are alternatives; facets narrow each other
+export const searchClothingFacets = (userId: string, filters: Record<string, string[]>): Promise<FacetSearchResult> =>
+  api.get(`/clothing/user/${userId}/facets`, { params: filters, paramsSerializer: { indexes: null } })
+    .then(r => r.data);
+
 // Outfits
 export const createOutfit = (payload: any) =>
   api.post("/outfits", payload).then(r => r.data);
@@ -48,4 +74,46 @@ export const getUserOutfits = (userId: string) =>
 export const getAISuggestion = (userId: string) =>
   api.get(`/ai/suggest-outfit/${userId}`).then(r => r.data);
 
+// Streams progressively better outfits; resolves with the best one once the search is done.
+// Read with fetch rather than EventSource, which cannot send the Authorization header.
+export const streamAISuggestion = async (userId: string, onOutfit: (items: any[]) => void): Promise<any[]> => {
+  const res = await fetch(`${API_BASE_URL}/ai/suggest-outfit/${userId}/stream?k=1`, {
+    headers: { Accept: "text/event-stream", ...authHeaders() },
+  });
+  if (!res.ok || !res.body) throw new Error("Suggestion stream failed");
+
+  const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = "";
+  let latest: any[] = [];
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += value;
+    let end;
+    while ((end = buffer.indexOf("\n\n")) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      let event = "message";
+      const data: string[] = [];
+      for (const line of block.split("\n")) {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).replace(/^ /, ""));
+      }
+      if (data.length === 0) continue;
+      const payload = JSON.parse(data.join("\n"));
+      if (event === "outfit") {
+        latest = payload.items;
+        onOutfit(latest);
+      } else if (event === "done") {
+        reader.cancel();
+        return payload.length > 0 ? payload[0].items : latest;
+      } else if (event === "error") {
+        reader.cancel();
+        throw new Error(payload.error ?? "Suggestion stream failed");
+      }
+    }
+  }
+  return latest;
+};
+
 export default api;
\ No newline at end of file
@@ -1,6 +1,7 @@
 import React, { useState } from 'react';
 import { X, Camera } from 'lucide-react';
 import { useWardrobe } from '../../contexts/WardrobeContext';
+import { authHeaders } from '../../api/api';
 
 interface AddItemModalProps {
   onClose: () => void;
@@ -46,6 +47,7 @@ export function AddItemModal({ onClose }: AddItemModalProps) {
     try {
       const res = await fetch("http://localhost:8080/api/images/upload", {
         method: "POST",
+        headers: authHeaders(),
         body: formDataUpload,
       });
       if (!res.ok) throw new Error("Upload failed");
@@ -1,7 +1,8 @@
-import { useState } from 'react';
+import { useEffect, useState } from 'react';
 import { Plus, Search, Filter, Grid, List, Trash2, Shirt } from 'lucide-react';
 import { useWardrobe, ClothingItem } from '../../contexts/WardrobeContext';
 import { AddItemModal } from './AddItemModal';
+import { thumbnailSrc, searchClothingFacets } from '../../api/api';
 
 type View = 'dashboard' | 'closet' | 'outfit-creator';
 
@@ -15,6 +16,26 @@ export function VirtualCloset({ }: VirtualClosetProps) {
   const [searchTerm, setSearchTerm] = useState('');
   const [selectedCategory, setSelectedCategory] = useState<string>('all');
   const [viewMode, setViewMode] = useState<'grid' | 'list'>('grid');
+  const [matchingIds, setMatchingIds] = useState<Set<string> | null>(null);
+  const [categoryCounts, setCategoryCounts] = useState<Record<string, number>>({});
+
+  // Category filtering and counts come from the server's facet index; the text search stays local
+  useEffect(() => {
+    const userId = localStorage.getItem('userId');
+    if (!userId) return;
+    let cancelled = false;
+    const filters = selectedCategory === 'all' ? {} : { category: [selectedCategory] };
+    searchClothingFacets(userId, filters)
+      .then(result => {
+        if (cancelled) return;
+        setMatchingIds(new Set(result.ids));
+        setCategoryCounts(result.facets.category ?? {});
+      })
+      .catch(() => {
+        if (!cancelled) setMatchingIds(null);
+      });
+    return () => { cancelled = true; };
+  }, [selectedCategory, clothingItems]);
 
   const categories = [
     { id: 'all', label: 'All Items' },
@@ -30,7 +51,9 @@ export function VirtualCloset({ }: VirtualClosetProps) {
       item.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
       item.brand?.toLowerCase().includes(searchTerm.toLowerCase()) ||
       item.colour.toLowerCase().includes(searchTerm.toLowerCase());
-    const matchesCategory = selectedCategory === 'all' || item.category === selectedCategory;
+    const matchesCategory = matchingIds
+      ? matchingIds.has(item.id)
+      : selectedCategory === 'all' || item.category === selectedCategory;
     return matchesSearch && matchesCategory;
   });
 
@@ -83,7 +106,7 @@ export function VirtualCloset({ }: VirtualClosetProps) {
             >
               {categories.map(category => (
                 <option key={category.id} value={category.id}>
-                  {category.label}
+                  {category.label} ({category.id === 'all' ? clothingItems.length : categoryCounts[category.id] ?? 0})
                 </option>
               ))}
             </select>
@@ -169,7 +192,7 @@ function ItemCard({ item, viewMode, onDelete }: ItemCardProps) {
       <div className="bg-white rounded-xl p-3 shadow-sm border border-gray-100 hover:shadow-md transition-all duration-200">
         <div className="flex items-center space-x-3">
           <img
-            src={item.imagePath}
+            src={thumbnailSrc(item)}
             alt={item.name}
             className="w-8 h-8 object-cover rounded-lg"
           />
@@ -203,7 +226,7 @@ function ItemCard({ item, viewMode, onDelete }: ItemCardProps) {
       <div className="overflow-hidden relative h-28 w-28 mx-auto rounded-lg">
 
         <img
-          src={item.imagePath}
+          src={thumbnailSrc(item)}
           alt={item.name}
           className="w-full h-full object-cover group-hover:scale-105 transition-transform duration-300"
         />
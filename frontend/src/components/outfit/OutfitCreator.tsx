@@ -2,7 +2,7 @@ import React, { useEffect, useState } from 'react';
 import { Save, Trash2, Sparkles, Search, Shirt, X } from 'lucide-react';
 import { useWardrobe, ClothingItem } from '../../contexts/WardrobeContext';
 import { SaveOutfitModal } from './SaveOutfitModal';
-import { getAISuggestion } from '../../api/api';
+import { streamAISuggestion, thumbnailSrc } from '../../api/api';
 import { useToast } from '../Toast';
 
 type View = 'dashboard' | 'closet' | 'outfit-creator';
@@ -85,7 +85,11 @@ export function OutfitCreator({ onNavigate }: OutfitCreatorProps) {
       }
 
       setIsLoadingAI(true);
-      const aiOutfit = await getAISuggestion(userId);
+      // Show each improvement as it arrives instead of waiting for the full ranking
+      const aiOutfit = await streamAISuggestion(userId, items => {
+        setSelectedItems(items);
+        setIsLoadingAI(false);
+      });
 
       if (!Array.isArray(aiOutfit)) {
         showToast('AI returned an invalid outfit.', 'error');
@@ -183,7 +187,7 @@ export function OutfitCreator({ onNavigate }: OutfitCreatorProps) {
                 >
                   <div className="overflow-hidden relative h-20 w-20 mx-auto rounded-lg mt-2">
                     <img
-                      src={item.imagePath}
+                      src={thumbnailSrc(item)}
                       alt={item.name}
                       className="w-full h-full object-cover group-hover:scale-105 transition-transform duration-300"
                     />
@@ -1,6 +1,7 @@
 import { useEffect, useState } from 'react';
 import { Plus, Eye, Trash2, X } from 'lucide-react';
 import { useWardrobe } from '../../contexts/WardrobeContext';
+import { authHeaders } from '../../api/api';
 import { View } from "../../types/View";
 
 type OutfitItem = {
@@ -39,7 +40,7 @@ export function SavedOutfits({ onNavigate }: SavedOutfitsProps) {
   }, [outfits]);
 
   const handleDeleteOutfit = async (id: string) => {
-    const res = await fetch(`http://localhost:8080/api/outfits/${id}`, { method: 'DELETE' });
+    const res = await fetch(`http://localhost:8080/api/outfits/${id}`, { method: 'DELETE', headers: authHeaders() });
 
     if (res.ok) {
       setLocalOutfits(prev => prev.filter(o => o.id !== id));
@@ -6,6 +6,7 @@ interface User {
   email: string;
   role?: string;
   avatarUrl?: string;
+  token?: string;
 }
 
 interface UserContextType {
@@ -41,6 +42,7 @@ export function UserProvider({ children }: { children: ReactNode }) {
 
     localStorage.setItem("user", JSON.stringify(data));
     localStorage.setItem("userId", data.id);
+    localStorage.setItem("token", data.token);
 
     return data;
   };
@@ -59,6 +61,7 @@ export function UserProvider({ children }: { children: ReactNode }) {
 
     localStorage.setItem("user", JSON.stringify(data));
     localStorage.setItem("userId", data.id);
+    localStorage.setItem("token", data.token);
 
     return data;
   };
@@ -67,6 +70,7 @@ export function UserProvider({ children }: { children: ReactNode }) {
     setUser(null);
     localStorage.removeItem("user");
     localStorage.removeItem("userId");
+    localStorage.removeItem("token");
   };
 
   return (
@@ -1,4 +1,5 @@
 import { createContext, useContext, useState, ReactNode, useEffect } from 'react';
+import { authHeaders } from '../api/api';
 
 export interface ClothingItem {
   id: string;
@@ -6,6 +7,7 @@ export interface ClothingItem {
   category: 'tops' | 'bottoms' | 'shoes' | 'accessories' | 'outerwear';
   colour: string;
   imagePath: string;
+  thumbnailUrl?: string;
   brand?: string;
   season?: string;
   userId?: string;
@@ -44,6 +46,7 @@ export function WardrobeProvider({ children }: { children: ReactNode }) {
       category: it.category,
       colour: it.colour,
       imagePath: it.imagePath,
+      thumbnailUrl: it.thumbnailUrl,
       brand: it.brand,
       season: it.season,
       userId: it.userId
@@ -52,13 +55,13 @@ export function WardrobeProvider({ children }: { children: ReactNode }) {
   });
 
   const fetchUserOutfits = async (userId: string) => {
-    const res = await fetch(`http://localhost:8080/api/outfits/user/${userId}`);
+    const res = await fetch(`http://localhost:8080/api/outfits/user/${userId}`, { headers: authHeaders() });
     if (res.ok) {
       const data = await res.json();
       setOutfits(data.map(mapOutfitResponse));
     }
 
-    const resClothing = await fetch(`http://localhost:8080/api/clothing/user/${userId}`);
+    const resClothing = await fetch(`http://localhost:8080/api/clothing/user/${userId}`, { headers: authHeaders() });
     if (resClothing.ok) {
       const data = await resClothing.json();
       setClothingItems(data);
@@ -77,7 +80,7 @@ export function WardrobeProvider({ children }: { children: ReactNode }) {
   const addClothingItem = async (item: Omit<ClothingItem, "id"> & { userId: string }) => {
     const res = await fetch("http://localhost:8080/api/clothing", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...authHeaders() },
       body: JSON.stringify(item),
     });
 
@@ -90,7 +93,7 @@ export function WardrobeProvider({ children }: { children: ReactNode }) {
   };
 
   const removeClothingItem = async (id: string) => {
-    const res = await fetch(`http://localhost:8080/api/clothing/${id}`, { method: 'DELETE' });
+    const res = await fetch(`http://localhost:8080/api/clothing/${id}`, { method: 'DELETE', headers: authHeaders() });
     if (res.ok) {
       setClothingItems(prev => prev.filter(item => item.id !== id));
     }
@@ -105,7 +108,7 @@ export function WardrobeProvider({ children }: { children: ReactNode }) {
 
     const res = await fetch("http://localhost:8080/api/outfits", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
+      headers: { "Content-Type": "application/json", ...authHeaders() },
       body: JSON.stringify({
         name: outfit.name,
         userId,